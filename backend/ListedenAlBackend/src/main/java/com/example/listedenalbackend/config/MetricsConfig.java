@@ -0,0 +1,152 @@
+package com.example.listedenalbackend.config;
+
+import com.example.listedenalbackend.metrics.QueryCountFilter;
+import com.example.listedenalbackend.metrics.QueryCounter;
+import com.example.listedenalbackend.ratelimit.InMemoryTokenBucketBackend;
+import com.example.listedenalbackend.ratelimit.RateLimitFilter;
+import com.example.listedenalbackend.ratelimit.RateLimiterBackend;
+import com.example.listedenalbackend.realtime.ListChangeBroadcaster;
+import com.example.listedenalbackend.security.BoundedPasswordEncoder;
+import com.example.listedenalbackend.security.TokenVersionRegistry;
+import com.example.listedenalbackend.security.UserPrincipalCache;
+import com.example.listedenalbackend.service.InvitationSweeper;
+import com.example.listedenalbackend.service.ListPermissionService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Uygulamaya özgü metrikler. HTTP, JVM, HikariCP ve Hibernate istatistikleri Spring Boot Actuator tarafından
+ * otomatik bağlanır; burada istek başına SQL sayısı ve uygulamanın kendi önbellek, kuyruk ve sayaçları
+ * kayıt defterine (MeterRegistry) bağlanır. Hepsi /actuator/prometheus üzerinden okunur.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    // Güvenlik zincirinden önce çalışır; kimlik doğrulama sorguları da sayılır
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(queryCounter, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder applicationMetrics(UserPrincipalCache userPrincipalCache,
+                                          TokenVersionRegistry tokenVersionRegistry,
+                                          ListPermissionService listPermissionService,
+                                          ListChangeBroadcaster listChangeBroadcaster,
+                                          InvitationSweeper invitationSweeper,
+                                          BoundedPasswordEncoder passwordEncoder,
+                                          RateLimitFilter rateLimitFilter,
+                                          RateLimiterBackend rateLimiterBackend,
+                                          DataSource dataSource) {
+        return registry -> {
+            bindCache(registry, "userPrincipals", userPrincipalCache::stats, userPrincipalCache, UserPrincipalCache::size);
+            bindCache(registry, "tokenVersions", tokenVersionRegistry::stats, tokenVersionRegistry, TokenVersionRegistry::size);
+            bindCache(registry, "listPermissions", listPermissionService::stats, listPermissionService, ListPermissionService::size);
+
+            Gauge.builder("realtime.subscribers", listChangeBroadcaster, ListChangeBroadcaster::getSubscriberCount)
+                    .description("Open SSE list subscriptions")
+                    .register(registry);
+            FunctionCounter.builder("realtime.subscribers.dropped", listChangeBroadcaster, ListChangeBroadcaster::getDroppedCount)
+                    .description("SSE subscribers dropped for a full outbox or a send over the deadline")
+                    .register(registry);
+            Gauge.builder("realtime.writer.queue", listChangeBroadcaster, ListChangeBroadcaster::getWriterQueueDepth)
+                    .description("SSE subscriber outboxes waiting for a writer thread")
+                    .register(registry);
+
+            FunctionCounter.builder("invitations.sweep.expired", invitationSweeper, InvitationSweeper::getExpiredCount)
+                    .register(registry);
+            FunctionCounter.builder("invitations.sweep.purged", invitationSweeper, InvitationSweeper::getPurgedCount)
+                    .register(registry);
+            FunctionCounter.builder("invitations.sweep.runs", invitationSweeper, InvitationSweeper::getRunCount)
+                    .register(registry);
+
+            FunctionTimer.builder("password.hashing", passwordEncoder,
+                            BoundedPasswordEncoder::getCompletedCount, BoundedPasswordEncoder::getTotalHashNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent computing password hashes")
+                    .register(registry);
+            FunctionTimer.builder("password.hashing.wait", passwordEncoder,
+                            BoundedPasswordEncoder::getCompletedCount, BoundedPasswordEncoder::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time password hashing tasks spent queued")
+                    .register(registry);
+            Gauge.builder("password.hashing.max", passwordEncoder, encoder -> encoder.getMaxHashNanos() / 1_000_000.0)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("password.hashing.queue", passwordEncoder, BoundedPasswordEncoder::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("password.hashing.queue.capacity", passwordEncoder, BoundedPasswordEncoder::getQueueCapacity)
+                    .register(registry);
+            Gauge.builder("password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                    .register(registry);
+            FunctionCounter.builder("password.hashing.rejected", passwordEncoder, BoundedPasswordEncoder::getRejectedCount)
+                    .description("Hashing requests rejected with 503 because the queue was full")
+                    .register(registry);
+
+            for (String group : rateLimitFilter.getRejectedCounts().keySet()) {
+                FunctionCounter.builder("ratelimit.rejected", rateLimitFilter, filter -> filter.getRejectedCounts().getOrDefault(group, 0L))
+                        .description("Requests rejected with 429")
+                        .tag("group", group)
+                        .register(registry);
+            }
+            if (rateLimiterBackend instanceof InMemoryTokenBucketBackend inMemoryBackend) {
+                Gauge.builder("ratelimit.buckets", inMemoryBackend, InMemoryTokenBucketBackend::size)
+                        .register(registry);
+            }
+
+            // Yalnızca sanal thread modunda (VirtualThreadConfig) veri kaynağı semaforla sarılıdır
+            if (dataSource instanceof ConcurrencyLimitedDataSource limitedDataSource) {
+                Gauge.builder("datasource.concurrency.available", limitedDataSource, ConcurrencyLimitedDataSource::getAvailablePermits)
+                        .register(registry);
+                Gauge.builder("datasource.concurrency.waiting", limitedDataSource, ConcurrencyLimitedDataSource::getQueueLength)
+                        .register(registry);
+                Gauge.builder("datasource.concurrency.max", limitedDataSource, ConcurrencyLimitedDataSource::getMaxConcurrency)
+                        .register(registry);
+            }
+        };
+    }
+
+    // Caffeine istatistiklerini Micrometer'ın cache.* adlandırmasıyla bağlar
+    private static <T> void bindCache(MeterRegistry registry, String name, Supplier<CacheStats> stats,
+                                      T cache, ToDoubleFunction<T> size) {
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hitCount())
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().missCount())
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictionCount())
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.listedenalbackend.config;
+
+import com.example.listedenalbackend.ratelimit.InMemoryTokenBucketBackend;
+import com.example.listedenalbackend.ratelimit.RateLimitFilter;
+import com.example.listedenalbackend.ratelimit.RateLimitProperties;
+import com.example.listedenalbackend.ratelimit.RateLimiterBackend;
+import com.example.listedenalbackend.security.jwt.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hız sınırlama bileşenleri. Filtre SecurityConfig'te güvenlik zincirine eklenir.
+ * Paylaşılan bir depo kullanmak için RateLimiterBackend tipinde başka bir bean tanımlanması yeterlidir.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(RateLimiterBackend.class)
+    public RateLimiterBackend rateLimiterBackend(RateLimitProperties properties) {
+        return new InMemoryTokenBucketBackend(properties.getMaxKeys(), properties.getIdleExpiry());
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, RateLimiterBackend rateLimiterBackend,
+                                           JwtTokenProvider tokenProvider, ObjectMapper objectMapper) {
+        return new RateLimitFilter(properties, rateLimiterBackend, tokenProvider, objectMapper);
+    }
+
+    // Filtre yalnızca güvenlik zincirinde çalışmalı; servlet konteynerine ayrıca kaydedilmez
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
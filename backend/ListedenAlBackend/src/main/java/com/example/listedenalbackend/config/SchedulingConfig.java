@@ -0,0 +1,13 @@
+package com.example.listedenalbackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Periyodik işler (gerçek zamanlı olayların toplu gönderimi, davetiye bakımı vb.) için zamanlayıcıyı ve @Async'i etkinleştirir.
+// Sanal thread modunda (spring.threads.virtual.enabled=true) Spring Boot her ikisi için de sanal thread kullanır.
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {
+}
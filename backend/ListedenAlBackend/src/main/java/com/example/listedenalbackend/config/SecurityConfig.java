@@ -1,8 +1,15 @@
 package com.example.listedenalbackend.config;
 
+import com.example.listedenalbackend.ratelimit.RateLimitFilter;
+import com.example.listedenalbackend.security.BoundedPasswordEncoder;
 import com.example.listedenalbackend.security.jwt.JwtAuthenticationEntryPoint;
 import com.example.listedenalbackend.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,11 +20,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -31,9 +41,22 @@ public class SecurityConfig {
         return new JwtAuthenticationFilter();
     }
 
+    /**
+     * Şifreler {bcrypt} önekiyle ve yapılandırılan maliyetle hash'lenir; öneksiz eski hash'ler BCrypt ile doğrulanır.
+     * Önek veya maliyet güncel değilse giriş sırasında şifre yeniden hash'lenir (CustomUserDetailsService.updatePassword).
+     * Hash işlemleri sınırlı bir havuzda çalışır; havuz ve kuyruk doluysa istek 503 ile reddedilir.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:10}") int strength,
+                                                  @Value("${app.password.hashing-threads:0}") int threads,
+                                                  @Value("${app.password.hashing-queue-capacity:64}") int queueCapacity) {
+        String encodingId = "bcrypt";
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, Map.of(encodingId, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity);
     }
 
     @Bean
@@ -42,22 +65,39 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitFilter rateLimitFilter,
+                                                   @Value("${server.port:8080}") int serverPort,
+                                                   @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        // Prometheus taraması yalnızca uygulama portundan ayrı bir yönetim portuna gelen isteklerde kimlik doğrulamasız yapılabilir
+        boolean separateManagementPort = managementPort > 0 && managementPort != serverPort;
+        RequestMatcher prometheusScrape = EndpointRequest.to(PrometheusScrapeEndpoint.class);
+        RequestMatcher prometheusOnManagementPort = request -> separateManagementPort
+                && request.getLocalPort() == managementPort && prometheusScrape.matches(request);
+
         http
                 .csrf(csrf -> csrf.disable())
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        // SSE gibi async yanıtların devam dispatch'leri: istek ilk dispatch'te zaten doğrulandı
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll() // H2-Console için (sadece geliştirme)
 
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/v3/api-docs/**").permitAll()
 
+                        // Sağlık kontrolü açık; Prometheus yalnızca yönetim portunda açık, diğer actuator uç noktaları yalnızca ADMIN
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(prometheusOnManagementPort).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+
                         .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Hız sınırı kimlik doğrulamasından önce uygulanır; reddedilen istekler kullanıcı yüklemez veya şifre doğrulamaz
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         // H2-Console'un frame sorununu çözmek için
         http.headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin));
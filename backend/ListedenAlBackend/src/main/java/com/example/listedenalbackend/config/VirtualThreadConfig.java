@@ -0,0 +1,32 @@
+package com.example.listedenalbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sanal thread modu: spring.threads.virtual.enabled=true ve Java 21+ ile çalışırken etkinleşir.
+ * Bu modda Tomcat istekleri, @Async işleri ve @Scheduled görevler Spring Boot tarafından sanal thread'lerde çalıştırılır.
+ * Veritabanı eşzamanlılığı thread sayısına değil, Hikari havuz boyutuna göre semaforla sınırlanır.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceConcurrencyLimiter(@Value("${app.datasource.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    return new ConcurrencyLimitedDataSource(hikariDataSource, hikariDataSource.getMaximumPoolSize(), acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
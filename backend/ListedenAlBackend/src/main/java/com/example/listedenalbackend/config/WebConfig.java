@@ -0,0 +1,37 @@
+package com.example.listedenalbackend.config;
+
+import com.example.listedenalbackend.security.CurrentUserArgumentResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public WebConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // spring.jpa.open-in-view=false yerine: OSIV, SSE akışları dışındaki isteklerde açık kalır. Asenkron bir istekte
+        // EntityManager (ve aldığı JDBC bağlantısı) akış kapanana kadar tutulur; havuz boyutu kadar abone havuzu tüketirdi.
+        OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+        openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openEntityManagerInView)
+                .excludePathPatterns("/api/shoppinglists/*/events");
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // @CurrentUser parametreleri için: kullanıcı ID'si her istekte yeniden sorgulanmadan principal'dan okunur
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+}
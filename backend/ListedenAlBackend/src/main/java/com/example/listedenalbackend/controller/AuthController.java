@@ -1,8 +1,11 @@
 package com.example.listedenalbackend.controller;
 
 import com.example.listedenalbackend.dto.LoginResponse;
+import com.example.listedenalbackend.dto.RefreshTokenRequest;
 import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.security.UserPrincipal;
 import com.example.listedenalbackend.security.jwt.JwtTokenProvider;
+import com.example.listedenalbackend.service.RefreshTokenService;
 import com.example.listedenalbackend.service.UserService;
 import com.example.listedenalbackend.dto.RegisterRequest;
 import com.example.listedenalbackend.dto.LoginRequest;
@@ -28,12 +31,15 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public AuthController(UserService userService, AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider) {
+    public AuthController(UserService userService, AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider,
+                          RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @GetMapping("/hello")
@@ -86,9 +92,31 @@ public class AuthController {
         LoginResponse response = new LoginResponse();
         response.setAccessToken(jwt);
         response.setEmail(email);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        response.setRefreshToken(refreshTokenService.issue(principal.getId(), principal.getUsername()));
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            summary = "Refresh the access token",
+            description = "Exchanges a refresh token for a new access token and a new refresh token without re-sending the password. " +
+                    "Each refresh token can be used once; reusing one revokes all tokens issued from the same login."
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.ok(refreshTokenService.refresh(refreshTokenRequest.getRefreshToken()));
+    }
+
+    @Operation(
+            summary = "Log out",
+            description = "Revokes the given refresh token and every token issued from the same login."
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(
             summary = "Say hello to Admin",
             description = "Returns a greeting message only if the authenticated user has the ADMIN role.",
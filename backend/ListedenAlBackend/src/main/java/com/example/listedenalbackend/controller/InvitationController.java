@@ -1,15 +1,12 @@
 package com.example.listedenalbackend.controller;
 
-import com.example.listedenalbackend.model.Invitation;
+import com.example.listedenalbackend.dto.InvitationView;
 import com.example.listedenalbackend.model.ListShare;
-import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.security.CurrentUser;
 import com.example.listedenalbackend.service.InvitationService;
-import com.example.listedenalbackend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,12 +17,10 @@ import java.util.Map;
 public class InvitationController {
 
     private final InvitationService invitationService;
-    private final UserService userService;
 
     @Autowired
-    public InvitationController(InvitationService invitationService, UserService userService) {
+    public InvitationController(InvitationService invitationService) {
         this.invitationService = invitationService;
-        this.userService = userService;
     }
 
     /**
@@ -33,11 +28,8 @@ public class InvitationController {
      * GET /api/invitations/pending
      */
     @GetMapping("/pending")
-    public ResponseEntity<List<Invitation>> getPendingInvitationsForUser(@AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found.")); // Bu hata GlobalExceptionHandler tarafından yakalanacak.
-
-        List<Invitation> invitations = invitationService.getPendingInvitationsForUser(currentUser.getId());
+    public ResponseEntity<List<InvitationView>> getPendingInvitationsForUser(@CurrentUser Long currentUserId) {
+        List<InvitationView> invitations = invitationService.getPendingInvitationsForUser(currentUserId);
         return ResponseEntity.ok(invitations);
     }
 
@@ -46,10 +38,7 @@ public class InvitationController {
      * POST /api/invitations/send
      */
     @PostMapping("/send")
-    public ResponseEntity<Invitation> sendInvitation(@RequestBody Map<String, String> requestBody, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User sender = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
+    public ResponseEntity<InvitationView> sendInvitation(@RequestBody Map<String, String> requestBody, @CurrentUser Long currentUserId) {
         Long shoppingListId = Long.valueOf(requestBody.get("shoppingListId"));
         String recipientEmail = requestBody.get("recipientEmail");
 
@@ -59,7 +48,7 @@ public class InvitationController {
             permissionLevel = ListShare.PermissionLevel.valueOf(requestBody.get("permissionLevel"));
         }
 
-        Invitation newInvitation = invitationService.createInvitation(shoppingListId, recipientEmail, sender.getId(), permissionLevel);
+        InvitationView newInvitation = invitationService.createInvitation(shoppingListId, recipientEmail, currentUserId, permissionLevel);
         return new ResponseEntity<>(newInvitation, HttpStatus.CREATED);
     }
 
@@ -68,11 +57,8 @@ public class InvitationController {
      * POST /api/invitations/accept/{invitationCode}
      */
     @PostMapping("/accept/{invitationCode}")
-    public ResponseEntity<Invitation> acceptInvitation(@PathVariable String invitationCode, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User acceptingUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        Invitation acceptedInvitation = invitationService.acceptInvitation(invitationCode, acceptingUser.getId());
+    public ResponseEntity<InvitationView> acceptInvitation(@PathVariable String invitationCode, @CurrentUser Long currentUserId) {
+        InvitationView acceptedInvitation = invitationService.acceptInvitation(invitationCode, currentUserId);
         return ResponseEntity.ok(acceptedInvitation);
     }
 
@@ -81,11 +67,8 @@ public class InvitationController {
      * POST /api/invitations/reject/{invitationCode}
      */
     @PostMapping("/reject/{invitationCode}")
-    public ResponseEntity<Invitation> rejectInvitation(@PathVariable String invitationCode, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User rejectingUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        Invitation rejectedInvitation = invitationService.rejectInvitation(invitationCode, rejectingUser.getId());
+    public ResponseEntity<InvitationView> rejectInvitation(@PathVariable String invitationCode, @CurrentUser Long currentUserId) {
+        InvitationView rejectedInvitation = invitationService.rejectInvitation(invitationCode, currentUserId);
         return ResponseEntity.ok(rejectedInvitation);
     }
 
@@ -95,11 +78,8 @@ public class InvitationController {
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT) // HTTP 204 No Content döner
-    public void deleteInvitation(@PathVariable Long id, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        invitationService.deleteInvitation(id, currentUser.getId());
+    public void deleteInvitation(@PathVariable Long id, @CurrentUser Long currentUserId) {
+        invitationService.deleteInvitation(id, currentUserId);
         // 204 No Content ResponseStatus anotasyonu sayesinde otomatik olarak ayarlanır.
     }
 }
\ No newline at end of file
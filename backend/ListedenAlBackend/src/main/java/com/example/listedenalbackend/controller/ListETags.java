@@ -0,0 +1,40 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.exception.PreconditionFailedException;
+
+/**
+ * Liste sürümünden türetilen güçlü (strong) ETag değerleri: "l{listeId}-v{sürüm}".
+ * Liste, ürünleri ve paylaşımları aynı liste sürümünü paylaştığından bu ETag listenin tüm alt kaynakları için geçerlidir.
+ */
+final class ListETags {
+
+    private ListETags() {
+    }
+
+    static String of(Long shoppingListId, long version) {
+        return "\"l" + shoppingListId + "-v" + version + "\"";
+    }
+
+    /**
+     * If-Match başlığından beklenen liste sürümünü çıkarır.
+     * @return Beklenen sürüm; başlık yoksa veya "*" ise null (koşulsuz yazma).
+     * @throws PreconditionFailedException Başlık bu listeye ait geçerli bir ETag içermiyorsa.
+     */
+    static Long expectedVersion(String ifMatch, Long shoppingListId) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"l" + shoppingListId + "-v";
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith(prefix) && trimmed.endsWith("\"") && trimmed.length() > prefix.length() + 1) {
+                try {
+                    return Long.valueOf(trimmed.substring(prefix.length(), trimmed.length() - 1));
+                } catch (NumberFormatException ignored) {
+                    // Diğer etiketler denenir
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match shopping list " + shoppingListId + ".");
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.realtime.ListChangeBroadcaster;
+import com.example.listedenalbackend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/shoppinglists/{shoppingListId}/events")
+public class ListEventController {
+
+    private final ListChangeBroadcaster listChangeBroadcaster;
+
+    @Autowired
+    public ListEventController(ListChangeBroadcaster listChangeBroadcaster) {
+        this.listChangeBroadcaster = listChangeBroadcaster;
+    }
+
+    /**
+     * Bir alışveriş listesindeki değişiklikleri Server-Sent Events olarak yayınlar.
+     * Her "changes" olayı, kısa bir zaman aralığında değişen ürün/paylaşım/liste kayıtlarının türünü, işlemini ve ID'sini içerir.
+     * GET /api/shoppinglists/{shoppingListId}/events
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Açık kalan olay akışı (text/event-stream).
+     * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Listeyi görüntüleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long shoppingListId, @CurrentUser Long currentUserId) {
+        return listChangeBroadcaster.subscribe(shoppingListId, currentUserId);
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.listedenalbackend.controller;
 
+import com.example.listedenalbackend.dto.CursorPage;
+import com.example.listedenalbackend.dto.ListItemOperation;
+import com.example.listedenalbackend.dto.ListItemOperationResult;
+import com.example.listedenalbackend.dto.ListItemUpdateRequest;
+import com.example.listedenalbackend.dto.ListItemView;
+import com.example.listedenalbackend.dto.VersionedResult;
 import com.example.listedenalbackend.model.ListItem;
-import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.security.CurrentUser;
 import com.example.listedenalbackend.service.ListItemService;
-import com.example.listedenalbackend.service.UserService;
+import com.example.listedenalbackend.service.SyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,30 +23,48 @@ import java.util.List;
 public class ListItemController {
 
     private final ListItemService listItemService;
-    private final UserService userService;
+    private final SyncService syncService;
 
     @Autowired
-    public ListItemController(ListItemService listItemService, UserService userService) {
+    public ListItemController(ListItemService listItemService, SyncService syncService) {
         this.listItemService = listItemService;
-        this.userService = userService;
+        this.syncService = syncService;
     }
 
     /**
-     * Belirli bir alışveriş listesindeki tüm ürünleri getirir.
-     * GET /api/shoppinglists/{shoppingListId}/items
+     * Belirli bir alışveriş listesindeki ürünleri sayfa sayfa getirir.
+     * GET /api/shoppinglists/{shoppingListId}/items?purchased=false&priority=1&namePrefix=sü&sort=priority&size=50&cursor=...
+     * Yanıt liste ETag'ini taşır; If-None-Match eşleşirse ürünler sorgulanmadan 304 Not Modified döner.
      * @param shoppingListId Alışveriş listesinin ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Ürünlerin listesiyle birlikte 200 OK yanıtı.
-     * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
+     * @param purchased Satın alınma durumu filtresi (isteğe bağlı).
+     * @param priority Öncelik filtresi (isteğe bağlı).
+     * @param namePrefix Ürün adı öneki, büyük/küçük harf duyarsız (isteğe bağlı).
+     * @param sort Sıralama: "createdAt" (varsayılan) veya "priority".
+     * @param cursor Önceki yanıttaki nextCursor değeri; ilk sayfa için boş bırakılır.
+     * @param size Sayfa boyutu (en fazla 200).
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Ürün sayfası ve sonraki sayfa imleciyle birlikte 200 OK yanıtı veya 304 Not Modified.
+     * @throws IllegalArgumentException Liste bulunamazsa, sıralama veya imleç geçersizse (GlobalExceptionHandler yakalar).
      * @throws SecurityException Listeyi görüntüleme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @GetMapping
-    public ResponseEntity<List<ListItem>> getItemsByShoppingList(@PathVariable Long shoppingListId, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        List<ListItem> items = listItemService.getItemsByShoppingList(shoppingListId, currentUser.getId());
-        return ResponseEntity.ok(items);
+    public ResponseEntity<CursorPage<ListItemView>> getItemsByShoppingList(@PathVariable Long shoppingListId,
+                                                                           @RequestParam(required = false) Boolean purchased,
+                                                                           @RequestParam(required = false) Integer priority,
+                                                                           @RequestParam(required = false) String namePrefix,
+                                                                           @RequestParam(defaultValue = "createdAt") String sort,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "" + ListItemService.DEFAULT_PAGE_SIZE) int size,
+                                                                           @CurrentUser Long currentUserId,
+                                                                           WebRequest webRequest) {
+        // Liste sürümü her ürün değişikliğinde arttığından aynı ETag tüm filtre/sayfa kombinasyonları için geçerlidir
+        String etag = ListETags.of(shoppingListId, syncService.getListVersion(shoppingListId, currentUserId));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPage<ListItemView> items = listItemService.getItemsByShoppingList(shoppingListId, purchased, priority, namePrefix,
+                sort, cursor, size, currentUserId);
+        return ResponseEntity.ok().eTag(etag).body(items);
     }
 
     /**
@@ -49,27 +72,15 @@ public class ListItemController {
      * GET /api/shoppinglists/{shoppingListId}/items/{itemId}
      * @param shoppingListId Alışveriş listesinin ID'si (URL anlamsal bütünlüğü için).
      * @param itemId Ürünün ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
      * @return Ürün nesnesiyle birlikte 200 OK yanıtı.
      * @throws IllegalArgumentException Ürün veya liste bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Listeyi görüntüleme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @GetMapping("/{itemId}")
-    public ResponseEntity<ListItem> getListItemById(@PathVariable Long shoppingListId, @PathVariable Long itemId, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        // Servis katmanında yetki kontrolü yapılacak.
-        // Ayrıca itemId'nin gerçekten shoppingListId'ye ait olduğu kontrolü de servis katmanında yapılabilir.
-        ListItem item = listItemService.getListItemById(itemId)
-                .filter(li -> li.getShoppingList().getId().equals(shoppingListId))
-                .orElseThrow(() -> new IllegalArgumentException("List item not found or does not belong to shopping list " + shoppingListId));
-
-        // Ek yetki kontrolü: Kullanıcının bu listeye erişimi var mı?
-        // Bu kontrol zaten listItemService.getItemsByShoppingList() içinde yapılıyor,
-        // ancak tekil bir öğeyi doğrudan getirdiğimizde de yapılması mantıklı.
-        // Servis katmanında bu kontrolü yapacak bir metot eklemek daha temiz olurdu.
-        listItemService.getItemsByShoppingList(shoppingListId, currentUser.getId()); // Sadece yetki kontrolü için çağrılıyor.
+    public ResponseEntity<ListItemView> getListItemById(@PathVariable Long shoppingListId, @PathVariable Long itemId, @CurrentUser Long currentUserId) {
+        // Yetki kontrolü ve ürünün listeye ait olup olmadığı servis katmanında yapılır.
+        ListItemView item = listItemService.getListItem(shoppingListId, itemId, currentUserId);
 
         return ResponseEntity.ok(item);
     }
@@ -77,59 +88,149 @@ public class ListItemController {
 
     /**
      * Belirli bir alışveriş listesine yeni bir ürün ekler.
-     * POST /api/shoppinglists/{shoppingListId}/items
+     * POST /api/shoppinglists/{shoppingListId}/items?merge=true
      * @param shoppingListId Ürünün ekleneceği alışveriş listesinin ID'si.
+     * @param merge true ise aynı ad ve birimdeki satın alınmamış ürünün miktarı artırılır (yinelenen ürün oluşmaz).
      * @param listItem Eklenecek ürün bilgileri.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Oluşturulan ürün nesnesiyle birlikte 201 Created yanıtı.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Oluşturulan ürünle birlikte 201 Created, mevcut ürünle birleştirildiyse 200 OK yanıtı.
      * @throws IllegalArgumentException Liste bulunamazsa veya geçersiz ürün bilgisi varsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Ürün ekleme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @PostMapping
-    public ResponseEntity<ListItem> addListItem(@PathVariable Long shoppingListId, @RequestBody ListItem listItem, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        ListItem createdItem = listItemService.addListItem(shoppingListId, listItem, currentUser.getId());
+    public ResponseEntity<ListItemView> addListItem(@PathVariable Long shoppingListId, @RequestParam(defaultValue = "false") boolean merge,
+                                                    @RequestBody ListItem listItem, @CurrentUser Long currentUserId) {
+        if (merge) {
+            ListItemService.MergeResult result = listItemService.mergeListItem(shoppingListId, listItem, currentUserId);
+            return new ResponseEntity<>(result.item(), result.created() ? HttpStatus.CREATED : HttpStatus.OK);
+        }
+        ListItemView createdItem = listItemService.addListItem(shoppingListId, listItem, currentUserId);
         return new ResponseEntity<>(createdItem, HttpStatus.CREATED);
     }
 
+    /**
+     * Bir listedeki ürünlere toplu işlem uygular (ekle, güncelle, satın alındı/alınmadı işaretle, sil).
+     * Tüm adımlar tek transaction'da ve tek yetki kontrolüyle çalışır.
+     * POST /api/shoppinglists/{shoppingListId}/items/batch
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param operations Sırayla uygulanacak işlemler (en fazla 500).
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Her işlemin sonucuyla (OK, NOT_FOUND, INVALID) birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Liste bulunamazsa veya işlem listesi geçersizse (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Düzenleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ListItemOperationResult>> applyBatch(@PathVariable Long shoppingListId, @RequestBody List<ListItemOperation> operations, @CurrentUser Long currentUserId) {
+        List<ListItemOperationResult> results = listItemService.applyBatch(shoppingListId, operations, currentUserId);
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Belirli bir ürünü günceller.
      * PUT /api/shoppinglists/{shoppingListId}/items/{itemId}
-     * @param shoppingListId Alışveriş listesinin ID'si (URL anlamsal bütünlüğü için).
+     * @param shoppingListId Alışveriş listesinin ID'si; ürün bu listeye ait olmalıdır.
      * @param itemId Güncellenecek ürünün ID'si.
-     * @param listItemDetails Güncellenmiş ürün bilgileri.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Güncellenmiş ürün nesnesiyle birlikte 200 OK yanıtı.
-     * @throws IllegalArgumentException Ürün bulunamazsa (GlobalExceptionHandler yakalar).
+     * @param updateRequest Değişen ürün alanları; okunan sürüm (version) ve isteğe bağlı olarak okunan hal (original).
+     * @param ifMatch İsteğe bağlı If-Match başlığı (liste ETag'i); verilirse liste bu ETag'den beri değişmemiş olmalıdır.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Güncellenmiş ürün nesnesi ve yeni liste ETag'i ile birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Ürün bu listede bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Güncelleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.PreconditionFailedException If-Match eşleşmezse (412).
+     * @throws com.example.listedenalbackend.exception.ConflictException Eşzamanlı değişiklikle çakışırsa (409, güncel ürünle birlikte).
      */
     @PutMapping("/{itemId}")
-    public ResponseEntity<ListItem> updateListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId, @RequestBody ListItem listItemDetails, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
+    public ResponseEntity<ListItemView> updateListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId, @RequestBody ListItemUpdateRequest updateRequest,
+                                                       @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                       @CurrentUser Long currentUserId) {
+        VersionedResult<ListItemView> updatedItem = listItemService.updateListItem(shoppingListId, itemId, updateRequest, currentUserId,
+                ListETags.expectedVersion(ifMatch, shoppingListId));
+        return ResponseEntity.ok().eTag(ListETags.of(shoppingListId, updatedItem.listVersion())).body(updatedItem.value());
+    }
+
+    /**
+     * Ürünü satın alındı olarak işaretler (mağazada listeden düşme). Tek bir koşullu UPDATE ile yapılır.
+     * PATCH /api/shoppinglists/{shoppingListId}/items/{itemId}/purchase
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param itemId Ürünün ID'si.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si (satın alan olarak kaydedilir).
+     * @return Güncellenmiş ürün nesnesiyle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Düzenleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.ConflictException Başka bir kullanıcı ürünü önce satın aldıysa (409).
+     */
+    @PatchMapping("/{itemId}/purchase")
+    public ResponseEntity<ListItemView> purchaseListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId, @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(listItemService.setPurchased(shoppingListId, itemId, true, currentUserId));
+    }
+
+    /**
+     * Ürünün satın alındı işaretini kaldırır.
+     * PATCH /api/shoppinglists/{shoppingListId}/items/{itemId}/unpurchase
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param itemId Ürünün ID'si.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Güncellenmiş ürün nesnesiyle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Düzenleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.ConflictException Ürün zaten satın alınmamış durumdaysa (409).
+     */
+    @PatchMapping("/{itemId}/unpurchase")
+    public ResponseEntity<ListItemView> unpurchaseListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId, @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(listItemService.setPurchased(shoppingListId, itemId, false, currentUserId));
+    }
 
-        ListItem updatedItem = listItemService.updateListItem(itemId, listItemDetails, currentUser.getId());
-        return ResponseEntity.ok(updatedItem);
+    /**
+     * Ürün miktarını verilen fark kadar artırır veya azaltır.
+     * PATCH /api/shoppinglists/{shoppingListId}/items/{itemId}/quantity?delta=-1
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param itemId Ürünün ID'si.
+     * @param delta Miktar farkı (negatif olabilir; sonuç pozitif kalmalıdır).
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Güncellenmiş ürün nesnesiyle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa ya da miktar pozitif kalmayacaksa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Düzenleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     */
+    @PatchMapping("/{itemId}/quantity")
+    public ResponseEntity<ListItemView> adjustListItemQuantity(@PathVariable Long shoppingListId, @PathVariable Long itemId,
+                                                               @RequestParam double delta, @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(listItemService.adjustQuantity(shoppingListId, itemId, delta, currentUserId));
+    }
+
+    /**
+     * Ürün önceliğini değiştirir.
+     * PATCH /api/shoppinglists/{shoppingListId}/items/{itemId}/priority?value=1
+     * @param shoppingListId Alışveriş listesinin ID'si.
+     * @param itemId Ürünün ID'si.
+     * @param value Yeni öncelik.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Güncellenmiş ürün nesnesiyle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Düzenleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     */
+    @PatchMapping("/{itemId}/priority")
+    public ResponseEntity<ListItemView> updateListItemPriority(@PathVariable Long shoppingListId, @PathVariable Long itemId,
+                                                               @RequestParam int value, @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(listItemService.updatePriority(shoppingListId, itemId, value, currentUserId));
     }
 
     /**
      * Belirli bir ürünü siler.
      * DELETE /api/shoppinglists/{shoppingListId}/items/{itemId}
-     * @param shoppingListId Alışveriş listesinin ID'si (URL anlamsal bütünlüğü için).
+     * @param shoppingListId Alışveriş listesinin ID'si; ürün bu listeye ait olmalıdır.
      * @param itemId Silinecek ürünün ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
+     * @param ifMatch İsteğe bağlı If-Match başlığı (liste ETag'i); verilirse liste bu ETag'den beri değişmemiş olmalıdır.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
      * @return 204 No Content yanıtı.
-     * @throws IllegalArgumentException Ürün bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws IllegalArgumentException Ürün bu listede bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Silme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.PreconditionFailedException If-Match eşleşmezse (412).
      */
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        listItemService.deleteListItem(itemId, currentUser.getId());
+    public void deleteListItem(@PathVariable Long shoppingListId, @PathVariable Long itemId,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                               @CurrentUser Long currentUserId) {
+        listItemService.deleteListItem(shoppingListId, itemId, currentUserId, ListETags.expectedVersion(ifMatch, shoppingListId));
     }
 }
\ No newline at end of file
@@ -1,14 +1,12 @@
 package com.example.listedenalbackend.controller;
 
+import com.example.listedenalbackend.dto.ListShareView;
 import com.example.listedenalbackend.model.ListShare;
-import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.security.CurrentUser;
 import com.example.listedenalbackend.service.ListShareService;
-import com.example.listedenalbackend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,30 +17,25 @@ import java.util.Map;
 public class ListShareController {
 
     private final ListShareService listShareService;
-    private final UserService userService; // Sadece current user objesini almak için
 
     @Autowired
-    public ListShareController(ListShareService listShareService, UserService userService) {
+    public ListShareController(ListShareService listShareService) {
         this.listShareService = listShareService;
-        this.userService = userService;
     }
 
     /**
      * Belirli bir alışveriş listesi için tüm paylaşımları getirir.
      * GET /api/shoppinglists/{shoppingListId}/shares
      * @param shoppingListId Paylaşım detayları alınacak alışveriş listesinin ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
      * @return Liste paylaşımlarının listesiyle birlikte 200 OK yanıtı.
      * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Yetkisiz erişim varsa (GlobalExceptionHandler yakalar).
      */
     @GetMapping
-    public ResponseEntity<List<ListShare>> getSharesForList(@PathVariable Long shoppingListId, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        // Yetki kontrolü servis katmanında yapılacak.
-        List<ListShare> shares = listShareService.getSharesForList(shoppingListId);
+    public ResponseEntity<List<ListShareView>> getSharesForList(@PathVariable Long shoppingListId, @CurrentUser Long currentUserId) {
+        // Yetki kontrolü servis katmanında yapılır.
+        List<ListShareView> shares = listShareService.getSharesForList(shoppingListId, currentUserId);
         return ResponseEntity.ok(shares);
     }
 
@@ -51,20 +44,17 @@ public class ListShareController {
      * POST /api/shoppinglists/{shoppingListId}/shares
      * @param shoppingListId Paylaşılacak alışveriş listesinin ID'si.
      * @param requestBody Paylaşılacak kullanıcının ID'sini (sharedUserId) ve yetki seviyesini (permissionLevel) içeren Map.
-     * @param currentUserDetails Paylaşımı yapan kullanıcının güvenlik detayları.
+     * @param currentUserId Paylaşımı yapan kullanıcının ID'si.
      * @return Oluşturulan ListShare nesnesiyle birlikte 201 Created yanıtı.
      * @throws IllegalArgumentException Geçersiz ID, zaten paylaşılmışsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Paylaşım yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @PostMapping
-    public ResponseEntity<ListShare> createListShare(@PathVariable Long shoppingListId, @RequestBody Map<String, Object> requestBody, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
+    public ResponseEntity<ListShareView> createListShare(@PathVariable Long shoppingListId, @RequestBody Map<String, Object> requestBody, @CurrentUser Long currentUserId) {
         Long sharedUserId = Long.valueOf(requestBody.get("sharedUserId").toString());
         ListShare.PermissionLevel permissionLevel = ListShare.PermissionLevel.valueOf(requestBody.get("permissionLevel").toString());
 
-        ListShare createdShare = listShareService.createListShare(shoppingListId, sharedUserId, permissionLevel, currentUser.getId());
+        ListShareView createdShare = listShareService.createListShare(shoppingListId, sharedUserId, permissionLevel, currentUserId);
         return new ResponseEntity<>(createdShare, HttpStatus.CREATED);
     }
 
@@ -74,19 +64,16 @@ public class ListShareController {
      * @param shoppingListId Alışveriş listesinin ID'si (URL anlamsal bütünlüğü için).
      * @param listShareId Güncellenecek ListShare kaydının ID'si.
      * @param requestBody Yeni yetki seviyesini (permissionLevel) içeren Map.
-     * @param currentUserDetails İşlemi yapan kullanıcının güvenlik detayları.
+     * @param currentUserId İşlemi yapan kullanıcının ID'si.
      * @return Güncellenmiş ListShare nesnesiyle birlikte 200 OK yanıtı.
      * @throws IllegalArgumentException Paylaşım bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Güncelleme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @PutMapping("/{listShareId}")
-    public ResponseEntity<ListShare> updateListShare(@PathVariable Long shoppingListId, @PathVariable Long listShareId, @RequestBody Map<String, String> requestBody, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
+    public ResponseEntity<ListShareView> updateListShare(@PathVariable Long shoppingListId, @PathVariable Long listShareId, @RequestBody Map<String, String> requestBody, @CurrentUser Long currentUserId) {
         ListShare.PermissionLevel newPermissionLevel = ListShare.PermissionLevel.valueOf(requestBody.get("permissionLevel"));
 
-        ListShare updatedShare = listShareService.updateListShare(listShareId, newPermissionLevel, currentUser.getId());
+        ListShareView updatedShare = listShareService.updateListShare(listShareId, newPermissionLevel, currentUserId);
         return ResponseEntity.ok(updatedShare);
     }
 
@@ -95,17 +82,14 @@ public class ListShareController {
      * DELETE /api/shoppinglists/{shoppingListId}/shares/{listShareId}
      * @param shoppingListId Alışveriş listesinin ID'si (URL anlamsal bütünlüğü için).
      * @param listShareId Silinecek ListShare kaydının ID'si.
-     * @param currentUserDetails İşlemi yapan kullanıcının güvenlik detayları.
+     * @param currentUserId İşlemi yapan kullanıcının ID'si.
      * @return 204 No Content yanıtı.
      * @throws IllegalArgumentException Paylaşım bulunamazsa veya sahibin paylaşımı silinmeye çalışılırsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Silme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @DeleteMapping("/{listShareId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteListShare(@PathVariable Long shoppingListId, @PathVariable Long listShareId, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        listShareService.deleteListShare(listShareId, currentUser.getId());
+    public void deleteListShare(@PathVariable Long shoppingListId, @PathVariable Long listShareId, @CurrentUser Long currentUserId) {
+        listShareService.deleteListShare(listShareId, currentUserId);
     }
 }
\ No newline at end of file
@@ -1,15 +1,18 @@
 package com.example.listedenalbackend.controller;
 
+import com.example.listedenalbackend.dto.CursorPage;
+import com.example.listedenalbackend.dto.ShoppingListUpdateRequest;
+import com.example.listedenalbackend.dto.ShoppingListView;
+import com.example.listedenalbackend.dto.VersionedResult;
 import com.example.listedenalbackend.model.ShoppingList;
-import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.security.CurrentUser;
 import com.example.listedenalbackend.service.ShoppingListService;
-import com.example.listedenalbackend.service.UserService;
+import com.example.listedenalbackend.service.SyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,53 +21,70 @@ import java.util.List;
 public class ShoppingListController {
 
     private final ShoppingListService shoppingListService;
-    private final UserService userService;
+    private final SyncService syncService;
 
     @Autowired
-    public ShoppingListController(ShoppingListService shoppingListService, UserService userService) {
+    public ShoppingListController(ShoppingListService shoppingListService, SyncService syncService) {
         this.shoppingListService = shoppingListService;
-        this.userService = userService;
+        this.syncService = syncService;
     }
 
     /**
      * Kimliği doğrulanmış kullanıcının erişebildiği tüm alışveriş listelerini getirir (sahibi olduğu veya paylaşılan).
      * GET /api/shoppinglists
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Alışveriş listelerinin listesiyle birlikte 200 OK yanıtı.
+     * Yanıt, erişilebilen listelerin sürümlerinden türetilen bir ETag taşır; If-None-Match eşleşirse
+     * listeler hiç yüklenmeden 304 Not Modified döner.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Alışveriş listelerinin listesiyle birlikte 200 OK yanıtı veya 304 Not Modified.
      * @throws RuntimeException Kullanıcı bulunamazsa (GlobalExceptionHandler yakalar).
      */
     @GetMapping
-    public ResponseEntity<List<ShoppingList>> getUserAccessibleShoppingLists(@AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
+    public ResponseEntity<List<ShoppingListView>> getUserAccessibleShoppingLists(@CurrentUser Long currentUserId, WebRequest webRequest) {
+        String etag = "\"lists-" + syncService.getAccessibleListsFingerprint(currentUserId) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<ShoppingListView> lists = shoppingListService.getUserAccessibleShoppingLists(currentUserId);
+        return ResponseEntity.ok().eTag(etag).body(lists);
+    }
 
-        List<ShoppingList> lists = shoppingListService.getUserAccessibleShoppingLists(currentUser.getId());
-        return ResponseEntity.ok(lists);
+    /**
+     * Kullanıcının erişebildiği alışveriş listelerini sayfa sayfa getirir (son güncellenen önce).
+     * GET /api/shoppinglists/accessible?archived=false&size=20&cursor=...
+     * @param archived Arşiv filtresi; verilmezse tüm listeler döner.
+     * @param cursor Önceki yanıttaki nextCursor değeri; ilk sayfa için boş bırakılır.
+     * @param size Sayfa boyutu (en fazla 100).
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Liste sayfası ve sonraki sayfa imleciyle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException İmleç geçersizse (GlobalExceptionHandler yakalar).
+     */
+    @GetMapping("/accessible")
+    public ResponseEntity<CursorPage<ShoppingListView>> getUserAccessibleShoppingListsPage(@RequestParam(required = false) Boolean archived,
+                                                                                       @RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(defaultValue = "" + ShoppingListService.DEFAULT_PAGE_SIZE) int size,
+                                                                                       @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(shoppingListService.getUserAccessibleShoppingLists(currentUserId, archived, cursor, size));
     }
 
     /**
      * Belirli bir alışveriş listesini ID'sine göre getirir.
      * GET /api/shoppinglists/{id}
+     * Yanıt, liste sürümünden türetilen bir ETag taşır; If-None-Match eşleşirse liste yüklenmeden 304 döner.
      * @param id Alışveriş listesinin ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Alışveriş listesi nesnesiyle birlikte 200 OK yanıtı.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Alışveriş listesi nesnesiyle birlikte 200 OK yanıtı veya 304 Not Modified.
      * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Kullanıcının listeyi görüntüleme yetkisi yoksa (GlobalExceptionHandler yakalar).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ShoppingList> getShoppingListById(@PathVariable Long id, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        // Servis katmanında yetki kontrolü yapılır.
-        // shoppingListService.getShoppingListById() direkt çağrılabilir
-        // Ancak bu metodun filtreleme kısmı, yetki kontrolünü Controller'da yapıyormuş gibi görünüyor.
-        // En doğrusu, getShoppingListById servisine de currentUserId parametresini ekleyip yetkiyi orada kontrol etmek
-        // veya basitçe servis katmanında döndürülen listeye erişim hakkını kontrol etmek.
-        return shoppingListService.getShoppingListById(id)
-                .filter(list -> list.getOwner().getId().equals(currentUser.getId()) ||
-                        shoppingListService.getUserAccessibleShoppingLists(currentUser.getId()).contains(list))
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ShoppingListView> getShoppingListById(@PathVariable Long id, @CurrentUser Long currentUserId, WebRequest webRequest) {
+        // Yetki kontrolü sürüm sorgusunda yapılır; sürüm değişmemişse liste hiç yüklenmez.
+        String etag = ListETags.of(id, syncService.getListVersion(id, currentUserId));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return shoppingListService.getShoppingListForUser(id, currentUserId)
+                .map(list -> ResponseEntity.ok().eTag(etag).body(list))
                 .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found or you don't have access to it."));
     }
 
@@ -72,16 +92,13 @@ public class ShoppingListController {
      * Yeni bir alışveriş listesi oluşturur.
      * POST /api/shoppinglists
      * @param shoppingList Oluşturulacak alışveriş listesi bilgileri.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
      * @return Oluşturulan alışveriş listesiyle birlikte 201 Created yanıtı.
      * @throws IllegalArgumentException Geçersiz veri varsa (GlobalExceptionHandler yakalar).
      */
     @PostMapping
-    public ResponseEntity<ShoppingList> createShoppingList(@RequestBody ShoppingList shoppingList, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        ShoppingList createdList = shoppingListService.createShoppingList(shoppingList, currentUser.getId());
+    public ResponseEntity<ShoppingListView> createShoppingList(@RequestBody ShoppingList shoppingList, @CurrentUser Long currentUserId) {
+        ShoppingListView createdList = shoppingListService.createShoppingList(shoppingList, currentUserId);
         return new ResponseEntity<>(createdList, HttpStatus.CREATED);
     }
 
@@ -89,36 +106,39 @@ public class ShoppingListController {
      * Belirli bir alışveriş listesini günceller.
      * PUT /api/shoppinglists/{id}
      * @param id Güncellenecek alışveriş listesinin ID'si.
-     * @param shoppingListDetails Güncellenmiş alışveriş listesi bilgileri.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
-     * @return Güncellenmiş alışveriş listesiyle birlikte 200 OK yanıtı.
+     * @param updateRequest Değişen liste alanları; okunan sürüm (version) ve isteğe bağlı olarak okunan hal (original).
+     * @param ifMatch İsteğe bağlı If-Match başlığı; verilirse liste bu ETag'den beri değişmemiş olmalıdır.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Güncellenmiş alışveriş listesi ve yeni ETag ile birlikte 200 OK yanıtı.
      * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Güncelleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.PreconditionFailedException If-Match eşleşmezse (412).
+     * @throws com.example.listedenalbackend.exception.ConflictException Eşzamanlı değişiklikle çakışırsa (409, güncel listeyle birlikte).
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ShoppingList> updateShoppingList(@PathVariable Long id, @RequestBody ShoppingList shoppingListDetails, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        ShoppingList updatedList = shoppingListService.updateShoppingList(id, shoppingListDetails, currentUser.getId());
-        return ResponseEntity.ok(updatedList);
+    public ResponseEntity<ShoppingListView> updateShoppingList(@PathVariable Long id, @RequestBody ShoppingListUpdateRequest updateRequest,
+                                                               @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                                               @CurrentUser Long currentUserId) {
+        VersionedResult<ShoppingListView> updatedList = shoppingListService.updateShoppingList(id, updateRequest, currentUserId,
+                ListETags.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ListETags.of(id, updatedList.listVersion())).body(updatedList.value());
     }
 
     /**
      * Belirli bir alışveriş listesini siler.
      * DELETE /api/shoppinglists/{id}
      * @param id Silinecek alışveriş listesinin ID'si.
-     * @param currentUserDetails Mevcut oturum açmış kullanıcının güvenlik detayları.
+     * @param ifMatch İsteğe bağlı If-Match başlığı; verilirse liste bu ETag'den beri değişmemiş olmalıdır.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
      * @return 204 No Content yanıtı.
      * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
      * @throws SecurityException Silme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     * @throws com.example.listedenalbackend.exception.PreconditionFailedException If-Match eşleşmezse (412).
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT) // HTTP 204 No Content döner
-    public void deleteShoppingList(@PathVariable Long id, @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User currentUser = userService.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found."));
-
-        shoppingListService.deleteShoppingList(id, currentUser.getId());
+    public void deleteShoppingList(@PathVariable Long id, @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                   @CurrentUser Long currentUserId) {
+        shoppingListService.deleteShoppingList(id, currentUserId, ListETags.expectedVersion(ifMatch, id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.dto.SyncResponse;
+import com.example.listedenalbackend.security.CurrentUser;
+import com.example.listedenalbackend.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @Autowired
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * Kullanıcının erişebildiği tüm listelerde, verilen imleçten bu yana değişen kayıtları getirir.
+     * GET /api/sync?since=...
+     * @param since Önceki yanıttaki cursor değeri; ilk senkronizasyonda boş bırakılır.
+     * @param currentUserId Mevcut oturum açmış kullanıcının ID'si.
+     * @return Değişen listeler, ürünler, paylaşımlar, silinen kayıtlar ve yeni imleçle birlikte 200 OK yanıtı.
+     * @throws IllegalArgumentException İmleç geçersizse (GlobalExceptionHandler yakalar).
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since, @CurrentUser Long currentUserId) {
+        return ResponseEntity.ok(syncService.sync(currentUserId, since));
+    }
+}
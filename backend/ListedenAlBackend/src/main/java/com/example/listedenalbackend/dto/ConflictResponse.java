@@ -0,0 +1,23 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 409 Conflict yanıtı: ErrorResponse alanlarına ek olarak çakışan alanları ve kaynağın sunucudaki güncel halini taşır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictResponse {
+    private int status;
+    private String error;
+    private String message;
+    private LocalDateTime timestamp;
+    private String path;
+    private List<String> conflictingFields;
+    private Object current;
+}
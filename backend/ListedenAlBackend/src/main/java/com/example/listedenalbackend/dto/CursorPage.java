@@ -0,0 +1,19 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Keyset (imleç) tabanlı sayfalama yanıtı.
+ * nextCursor, bir sonraki sayfayı istemek için aynen geri gönderilmelidir; son sayfada null'dır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
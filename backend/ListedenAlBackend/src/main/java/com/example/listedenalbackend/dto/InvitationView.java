@@ -0,0 +1,46 @@
+package com.example.listedenalbackend.dto;
+
+import com.example.listedenalbackend.model.Invitation;
+import com.example.listedenalbackend.repository.projection.InvitationAcceptRow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Davetiyenin API'ye dönen okuma modeli.
+ * Davet edilen kullanıcının listeyi tanıyabilmesi için liste adı ve gönderenin e-postası da taşınır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvitationView {
+    private Long id;
+    private Long shoppingListId;
+    private String shoppingListName;
+    private Long senderId;
+    private String senderEmail;
+    private String recipientEmail;
+    private Long recipientUserId;
+    private String invitationCode;
+    private Invitation.InvitationStatus status;
+    private LocalDateTime sentAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime acceptedAt;
+
+    public static InvitationView from(Invitation invitation) {
+        return new InvitationView(invitation.getId(), invitation.getShoppingList().getId(),
+                invitation.getShoppingList().getName(), invitation.getSender().getId(), invitation.getSender().getEmail(),
+                invitation.getRecipientEmail(),
+                invitation.getRecipientUser() != null ? invitation.getRecipientUser().getId() : null,
+                invitation.getInvitationCode(), invitation.getStatus(), invitation.getSentAt(),
+                invitation.getExpiresAt(), invitation.getAcceptedAt());
+    }
+
+    // Tek ifadelik kabul sorgusunun döndürdüğü satırdan üretir
+    public static InvitationView from(InvitationAcceptRow row) {
+        return new InvitationView(row.getId(), row.getShoppingListId(), row.getShoppingListName(), row.getSenderId(),
+                row.getSenderEmail(), row.getRecipientEmail(), row.getRecipientUserId(), row.getInvitationCode(),
+                Invitation.InvitationStatus.valueOf(row.getStatus()), row.getSentAt(), row.getExpiresAt(), row.getAcceptedAt());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.listedenalbackend.dto;
+
+import com.example.listedenalbackend.model.ListItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toplu ürün işlemindeki tek bir adım.
+ * ADD için item zorunludur; UPDATE, PURCHASE, UNPURCHASE ve DELETE için itemId zorunludur.
+ * UPDATE yalnızca item içindeki null olmayan alanları (ad, miktar, birim, not, öncelik) uygular;
+ * item.version verilirse ürün hâlâ bu sürümde olmalıdır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListItemOperation {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        PURCHASE,
+        UNPURCHASE,
+        DELETE
+    }
+
+    private Type op;
+    private Long itemId;
+    private ListItem item;
+}
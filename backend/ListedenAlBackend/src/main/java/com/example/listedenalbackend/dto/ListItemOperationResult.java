@@ -0,0 +1,30 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toplu ürün işlemindeki bir adımın sonucu; istek içindeki sırası (index) ile eşleştirilir.
+ * Başarılı ADD/UPDATE/PURCHASE/UNPURCHASE adımlarında item güncel ürünü içerir.
+ * UPDATE adımındaki item.version güncel değilse adım CONFLICT alır ve item sunucudaki güncel ürünü içerir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListItemOperationResult {
+
+    public enum Status {
+        OK,
+        NOT_FOUND,
+        INVALID,
+        CONFLICT
+    }
+
+    private int index;
+    private ListItemOperation.Type op;
+    private Long itemId;
+    private Status status;
+    private String message;
+    private ListItemView item;
+}
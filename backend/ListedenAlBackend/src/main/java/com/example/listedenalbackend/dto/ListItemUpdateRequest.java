@@ -0,0 +1,24 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ürün güncelleme isteği. Null alanlar değiştirilmez.
+ * version, istemcinin okuduğu ürün sürümüdür; verilirse ve güncel değilse istek original ile alan bazında birleştirilir.
+ * original, istemcinin düzenlemeye başladığı haldir; yoksa eski sürümle gelen istek doğrudan 409 alır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListItemUpdateRequest {
+    private Long version;
+    private String productName;
+    private Double quantity;
+    private String unit;
+    private String notes;
+    private Integer priority;
+    private Boolean purchased;
+    private ListItemView original;
+}
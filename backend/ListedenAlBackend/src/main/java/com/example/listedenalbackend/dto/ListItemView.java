@@ -0,0 +1,47 @@
+package com.example.listedenalbackend.dto;
+
+import com.example.listedenalbackend.model.ListItem;
+import com.example.listedenalbackend.repository.projection.ListItemRow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Liste ürününün API'ye dönen okuma modeli.
+ * Ekleyen ve satın alan kullanıcılar yalnızca ID olarak taşınır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListItemView {
+    private Long id;
+    private Long shoppingListId;
+    private String productName;
+    private Double quantity;
+    private String unit;
+    private boolean purchased;
+    private String notes;
+    private Long addedByUserId;
+    private Long purchasedByUserId;
+    private Integer priority;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version; // Güncelleme isteklerinde geri gönderilir (iyimser kilitleme)
+
+    // İlişkili kullanıcı ve listelerin yalnızca ID'leri okunur (proxy yüklenmez).
+    public static ListItemView from(ListItem item) {
+        return new ListItemView(item.getId(), item.getShoppingList().getId(), item.getProductName(), item.getQuantity(),
+                item.getUnit(), item.isPurchased(), item.getNotes(),
+                item.getAddedBy() != null ? item.getAddedBy().getId() : null,
+                item.getPurchasedBy() != null ? item.getPurchasedBy().getId() : null,
+                item.getPriority(), item.getCreatedAt(), item.getUpdatedAt(), item.getVersion());
+    }
+
+    // Tek ifadelik native güncellemelerin döndürdüğü satırdan üretir
+    public static ListItemView from(ListItemRow row) {
+        return new ListItemView(row.getId(), row.getShoppingListId(), row.getProductName(), row.getQuantity(),
+                row.getUnit(), Boolean.TRUE.equals(row.getPurchased()), row.getNotes(), row.getAddedByUserId(),
+                row.getPurchasedByUserId(), row.getPriority(), row.getCreatedAt(), row.getUpdatedAt(), row.getVersion());
+    }
+}
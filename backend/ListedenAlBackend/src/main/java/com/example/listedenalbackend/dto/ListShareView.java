@@ -0,0 +1,27 @@
+package com.example.listedenalbackend.dto;
+
+import com.example.listedenalbackend.model.ListShare;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Liste paylaşımının API'ye dönen okuma modeli.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListShareView {
+    private Long id;
+    private Long shoppingListId;
+    private Long sharedUserId;
+    private String sharedUserEmail;
+    private ListShare.PermissionLevel permissionLevel;
+    private LocalDateTime sharedAt;
+
+    public static ListShareView from(ListShare share) {
+        return new ListShareView(share.getId(), share.getShoppingList().getId(), share.getSharedUser().getId(),
+                share.getSharedUser().getEmail(), share.getPermissionLevel(), share.getSharedAt());
+    }
+}
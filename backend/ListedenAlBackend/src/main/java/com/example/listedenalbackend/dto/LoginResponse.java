@@ -12,4 +12,6 @@ import lombok.AllArgsConstructor;
 public class LoginResponse {
     private String accessToken;
     private String email;
+    // Erişim token'ı süresi dolduğunda /api/auth/refresh ile yenilemek için (her kullanımda yenisi verilir)
+    private String refreshToken;
 }
\ No newline at end of file
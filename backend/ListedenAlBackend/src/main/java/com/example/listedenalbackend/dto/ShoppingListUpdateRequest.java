@@ -0,0 +1,20 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Alışveriş listesi güncelleme isteği. Null alanlar değiştirilmez (archived gönderilmezse arşiv durumu korunur).
+ * version ve original, ListItemUpdateRequest ile aynı şekilde iyimser kilitleme ve alan bazında birleştirme için kullanılır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingListUpdateRequest {
+    private Long version;
+    private String name;
+    private String description;
+    private Boolean archived;
+    private ShoppingListView original;
+}
@@ -0,0 +1,31 @@
+package com.example.listedenalbackend.dto;
+
+import com.example.listedenalbackend.model.ShoppingList;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Alışveriş listesinin API'ye dönen okuma modeli.
+ * Repository sorgularında constructor projeksiyonu ile doldurulur; ilişkili koleksiyonlar ve kullanıcı nesneleri taşınmaz.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingListView {
+    private Long id;
+    private String name;
+    private String description;
+    private Long ownerId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private boolean archived;
+    private Long version; // Güncelleme isteklerinde geri gönderilir (iyimser kilitleme)
+
+    // Kaydetme/güncelleme sonrası elimizdeki entity'den üretir; sahibin yalnızca ID'si okunur (proxy yüklenmez).
+    public static ShoppingListView from(ShoppingList list) {
+        return new ShoppingListView(list.getId(), list.getName(), list.getDescription(), list.getOwner().getId(),
+                list.getCreatedAt(), list.getUpdatedAt(), list.isArchived(), list.getVersion());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.listedenalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Delta senkronizasyon yanıtı: istemcinin gönderdiği imleçten bu yana değişen kayıtlar.
+ * İstemci bu değişiklikleri yerel kopyasına uyguladıktan sonra bir sonraki istekte cursor değerini göndermelidir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    // Yeni erişilen veya herhangi bir değişiklik olan listeler
+    private List<ShoppingListView> lists;
+    private List<ListItemView> items;
+    private List<ListShareView> shares;
+    private List<Long> deletedItemIds;
+    private List<Long> deletedShareIds;
+    // Silinen veya kullanıcının erişimi kalkan listeler; yerel kopyadan tamamen kaldırılmalıdır
+    private List<Long> removedListIds;
+    private String cursor;
+}
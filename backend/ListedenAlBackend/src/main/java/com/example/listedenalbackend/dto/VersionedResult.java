@@ -0,0 +1,9 @@
+package com.example.listedenalbackend.dto;
+
+/**
+ * Bir yazma işleminin sonucu ve aynı transaction içinde üretilen liste sürümü.
+ * Yanıttaki ETag bu sürümden üretilir; commit sonrası yeniden okunan sürüm araya giren başka bir yazmayı
+ * içerebileceğinden kullanılmaz.
+ */
+public record VersionedResult<T>(T value, long listVersion) {
+}
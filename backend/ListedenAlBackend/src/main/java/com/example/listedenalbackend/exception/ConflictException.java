@@ -0,0 +1,27 @@
+package com.example.listedenalbackend.exception;
+
+import java.util.List;
+
+/**
+ * İstemcinin güncellemesi, okuduğu sürümden sonra sunucuda yapılan bir değişiklikle çakıştığında fırlatılır (HTTP 409).
+ * Yanıt, istemcinin yeniden okumadan birleştirme yapabilmesi için kaynağın güncel halini ve çakışan alanları taşır.
+ */
+public class ConflictException extends RuntimeException {
+
+    private final transient Object current;
+    private final List<String> conflictingFields;
+
+    public ConflictException(String message, Object current, List<String> conflictingFields) {
+        super(message);
+        this.current = current;
+        this.conflictingFields = conflictingFields;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+
+    public List<String> getConflictingFields() {
+        return conflictingFields;
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.listedenalbackend.exception;
 
+import com.example.listedenalbackend.dto.ConflictResponse;
 import com.example.listedenalbackend.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -44,6 +48,80 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
     }
 
+    // AuthenticationException için handler (hatalı giriş bilgileri, geçersiz/kullanılmış yenileme token'ı)
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex, WebRequest request) {
+        logger.warn("AuthenticationException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNAUTHORIZED.value(),
+                HttpStatus.UNAUTHORIZED.getReasonPhrase(),
+                "Kimlik doğrulama başarısız.",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "") // İstemciye gönderilecek URL
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+    }
+
+    // PreconditionFailedException için handler (If-Match sürümü güncel değil)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex, WebRequest request) {
+        logger.warn("PreconditionFailedException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                HttpStatus.PRECONDITION_FAILED.getReasonPhrase(),
+                "Kaynak siz okuduktan sonra değişti. Lütfen güncel hali alıp tekrar deneyin.",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "") // İstemciye gönderilecek URL
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // ConflictException için handler (eşzamanlı değişiklikle çakışma); güncel hal ve çakışan alanlar döner
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ConflictResponse> handleConflictException(ConflictException ex, WebRequest request) {
+        logger.warn("ConflictException: {} {}", ex.getMessage(), ex.getConflictingFields());
+        ConflictResponse conflictResponse = new ConflictResponse(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "Kaynak başka bir kullanıcı tarafından değiştirildi.",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", ""), // İstemciye gönderilecek URL
+                ex.getConflictingFields(),
+                ex.getCurrent()
+        );
+        return new ResponseEntity<>(conflictResponse, HttpStatus.CONFLICT);
+    }
+
+    // İyimser kilitleme hatası için handler (okuma ile yazma arasında araya giren commit)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        logger.warn("OptimisticLockingFailureException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "Kaynak başka bir kullanıcı tarafından değiştirildi. Lütfen güncel hali alıp tekrar deneyin.",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "") // İstemciye gönderilecek URL
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    // ServiceBusyException için handler (sınırlı kaynak dolu); istemci kısa süre sonra yeniden denemelidir
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusyException(ServiceBusyException ex, WebRequest request) {
+        logger.warn("ServiceBusyException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "Sunucu şu anda yoğun. Lütfen kısa bir süre sonra tekrar deneyin.",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "") // İstemciye gönderilecek URL
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     // RuntimeException için handler
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex, WebRequest request) {
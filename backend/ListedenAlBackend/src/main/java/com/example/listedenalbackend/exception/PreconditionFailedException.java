@@ -0,0 +1,11 @@
+package com.example.listedenalbackend.exception;
+
+/**
+ * İstemcinin If-Match ile gönderdiği sürüm kaynağın güncel sürümüyle eşleşmediğinde fırlatılır (HTTP 412).
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.listedenalbackend.exception;
+
+/**
+ * Sınırlı bir kaynağın (ör. şifre hash'leme havuzu) kapasitesi dolduğunda istek bekletilmeden fırlatılır (HTTP 503).
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
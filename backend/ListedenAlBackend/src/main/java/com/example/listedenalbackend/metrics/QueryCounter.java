@@ -0,0 +1,35 @@
+package com.example.listedenalbackend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate'in çalıştırdığı SQL ifadelerini thread başına sayar. Sayım yalnızca {@link #start()} ile
+ * başlatılmış bir kapsam içinde (ör. HTTP isteği) yapılır; zamanlanmış işlerdeki sorgular sayılmaz.
+ * SQL metni değiştirilmeden döndürülür.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Kapsamı kapatır ve kapsam içinde çalışan ifade sayısını döndürür.
+     */
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+}
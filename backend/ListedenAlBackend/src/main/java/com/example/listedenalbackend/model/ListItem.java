@@ -1,12 +1,23 @@
 package com.example.listedenalbackend.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "list_items")
+@Table(name = "list_items", indexes = {
+        // Ürün listeleme: varsayılan sıralama (eklenme sırası) ve keyset sayfalama
+        @Index(name = "idx_list_items_list_created", columnList = "shopping_list_id, createdAt, id"),
+        // Önceliğe göre sıralama ve öncelik filtresi (null öncelikler sonda)
+        @Index(name = "idx_list_items_list_priority", columnList = "shopping_list_id, priority, id"),
+        // Satın alınma durumu filtresi
+        @Index(name = "idx_list_items_list_purchased", columnList = "shopping_list_id, isPurchased, createdAt, id"),
+        // Delta senkronizasyon: belirli bir sürümden sonra değişen ürünler
+        @Index(name = "idx_list_items_list_change_version", columnList = "shopping_list_id, changeVersion")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +27,8 @@ import java.time.LocalDateTime;
 public class ListItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "list_items_seq")
+    @SequenceGenerator(name = "list_items_seq", sequenceName = "list_items_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -48,6 +60,23 @@ public class ListItem {
 
     private Integer priority; // 1 (yüksek) - 5 (düşük) gibi
 
+    // Birleştirerek eklemede kullanılan normalize ad+birim anahtarı (ProductNames.mergeKey). Her ekleme ve ad/birim değişikliğinde
+    // hesaplanır; satın alınan ürünlerde ve listede aynı anahtar başka bir satın alınmamış üründe varken boştur.
+    // (shopping_list_id, mergeKey) üzerinde kısmi benzersiz indeks vardır (db/migration/V3__query_indexes.sql).
+    @Column(length = 512)
+    @JsonIgnore
+    private String mergeKey;
+
+    // Ürünün son değiştiği liste sürümü (ShoppingList.changeVersion)
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long changeVersion;
+
+    // İyimser kilitleme: eşzamanlı güncellemelerde son yazanın sessizce kazanmasını engeller
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -3,11 +3,14 @@ package com.example.listedenalbackend.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "list_shares", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"shopping_list_id", "shared_user_id"}) // Bir kullanıcı bir liste için sadece bir paylaşıma sahip olabilir
+}, indexes = {
+        @Index(name = "idx_list_shares_list_change_version", columnList = "shopping_list_id, changeVersion")
 })
 @Getter
 @Setter
@@ -18,7 +21,8 @@ import java.time.LocalDateTime;
 public class ListShare {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "list_shares_seq")
+    @SequenceGenerator(name = "list_shares_seq", sequenceName = "list_shares_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -40,6 +44,11 @@ public class ListShare {
     @Column(nullable = false, updatable = false)
     private LocalDateTime sharedAt;
 
+    // Paylaşımın son değiştiği liste sürümü (ShoppingList.changeVersion)
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long changeVersion;
+
     @PrePersist
     protected void onCreate() {
         this.sharedAt = LocalDateTime.now();
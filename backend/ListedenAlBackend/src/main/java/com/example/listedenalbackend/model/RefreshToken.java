@@ -0,0 +1,58 @@
+package com.example.listedenalbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Yenileme (refresh) token'ı. Token'ın kendisi saklanmaz, yalnızca SHA-256 özeti tutulur.
+ * Her kullanımda token tüketilir (usedAt) ve aynı aileden (familyId) yenisi verilir; tüketilmiş bir token'ın
+ * tekrar kullanılması çalındığına işaret ettiğinden tüm aile iptal edilir (revokedAt).
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "familyId"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "tokenHash")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    // Yenilemede kullanıcı varlığı yüklenmez; ilişki değil, düz ID olarak tutulur
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Token'ın SHA-256 özeti (hex)
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Aynı girişten türeyen (rotasyonla birbirini izleyen) token'ların ortak kimliği
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime usedAt; // Rotasyonda tüketildiği an
+
+    private LocalDateTime revokedAt; // Çıkış veya yeniden kullanım tespitiyle iptal edildiği an
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
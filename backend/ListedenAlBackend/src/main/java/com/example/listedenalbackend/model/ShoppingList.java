@@ -3,6 +3,7 @@ package com.example.listedenalbackend.model;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -20,7 +21,8 @@ import java.util.Set;
 public class ShoppingList {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_lists_seq")
+    @SequenceGenerator(name = "shopping_lists_seq", sequenceName = "shopping_lists_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -42,6 +44,17 @@ public class ShoppingList {
     @Column(nullable = false)
     private boolean isArchived = false;
 
+    // Listedeki her değişiklikte (liste, ürün, paylaşım) artan sürüm; delta senkronizasyon imleci bu değeri taşır.
+    // Yalnızca ShoppingListRepository.incrementChangeVersion ile atomik olarak artırılır, entity güncellemesi üzerine yazmaz.
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long changeVersion;
+
+    // İyimser kilitleme: yalnızca listenin kendi alanları (ad, açıklama, arşiv) değiştiğinde artar
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @OneToMany(mappedBy = "shoppingList", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<ListItem> items = new ArrayList<>();
@@ -0,0 +1,57 @@
+package com.example.listedenalbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Silinen bir ürün veya paylaşımın izi. Delta senkronizasyonda istemcinin yerel kopyasından
+ * silmesi gereken kayıtları bildirmek için tutulur. Liste silindiğinde listenin izleri de silinir;
+ * silinen listeler senkronizasyon imlecindeki farktan anlaşılır.
+ */
+@Entity
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_list_change_version", columnList = "shopping_list_id, changeVersion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Tombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstones_seq")
+    @SequenceGenerator(name = "tombstones_seq", sequenceName = "tombstones_seq", allocationSize = 50)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    // Liste silindikten sonra da okunabilmesi için ilişki değil, düz ID olarak tutulur
+    @Column(name = "shopping_list_id", nullable = false)
+    private Long shoppingListId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    // Silme işleminin gerçekleştiği liste sürümü
+    @Column(nullable = false)
+    private long changeVersion;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    public enum EntityType {
+        ITEM,
+        SHARE
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.listedenalbackend.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token kovası tanımı: en fazla capacity token birikir, her refillPeriod süresinde refillTokens token eklenir.
+ */
+public record Bandwidth(long capacity, long refillTokens, Duration refillPeriod) {
+
+    public Bandwidth {
+        if (capacity <= 0 || refillTokens <= 0 || refillPeriod == null || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Rate limit capacity, refill tokens and refill period must be positive.");
+        }
+    }
+
+    /**
+     * Bir token'ın yeniden dolma süresi (nanosaniye).
+     */
+    public long nanosPerToken() {
+        return Math.max(1, refillPeriod.toNanos() / refillTokens);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.listedenalbackend.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Kilitsiz (lock-free) bellek içi token kovası. Her kova tek bir AtomicLong'dur: bir sonraki token'ın teorik
+ * varış zamanı (GCRA). Token alma tek bir compareAndSet ile yapılır; zamanlayıcı veya arka plan dolum işi yoktur.
+ * Kovalar boyut ve boşta kalma süresiyle sınırlı bir Caffeine önbelleğinde tutulur.
+ */
+public class InMemoryTokenBucketBackend implements RateLimiterBackend {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public InMemoryTokenBucketBackend(long maxKeys, Duration idleExpiry) {
+        this(maxKeys, idleExpiry, System::nanoTime);
+    }
+
+    // Testlerde zamanı elle ilerletmek için
+    InMemoryTokenBucketBackend(long maxKeys, Duration idleExpiry, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryConsume(String key, Bandwidth bandwidth) {
+        long now = nanoClock.getAsLong();
+        long interval = bandwidth.nanosPerToken();
+        long burst = interval * bandwidth.capacity();
+        // Yeni kova dolu başlar
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
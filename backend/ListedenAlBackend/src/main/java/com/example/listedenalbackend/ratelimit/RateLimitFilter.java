@@ -0,0 +1,152 @@
+package com.example.listedenalbackend.ratelimit;
+
+import com.example.listedenalbackend.dto.ErrorResponse;
+import com.example.listedenalbackend.security.jwt.JwtAuthenticationFilter;
+import com.example.listedenalbackend.security.jwt.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Uç nokta gruplarına göre token kovası hız sınırlaması. Güvenlik zincirinde JwtAuthenticationFilter'dan önce çalışır;
+ * sınırı aşan istek kullanıcı yüklenmeden, şifre doğrulanmadan veya veritabanına gidilmeden 429 ve Retry-After ile döner.
+ * Kullanıcıya göre sınırlanan gruplarda erişim token'ı burada doğrulanır ve claim'ler istek özniteliğine yazılır;
+ * JwtAuthenticationFilter token'ı tekrar ayrıştırmaz. Geçerli token yoksa istemci IP adresine göre sınırlanır.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitProperties properties;
+    private final RateLimiterBackend backend;
+    private final JwtTokenProvider tokenProvider;
+    private final ObjectMapper objectMapper;
+    private final List<CompiledGroup> groups;
+    private final Map<String, LongAdder> rejectedCounts = new ConcurrentHashMap<>();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiterBackend backend,
+                           JwtTokenProvider tokenProvider, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.backend = backend;
+        this.tokenProvider = tokenProvider;
+        this.objectMapper = objectMapper;
+        this.groups = properties.getGroups().stream()
+                .map(CompiledGroup::of)
+                .toList();
+        this.groups.forEach(group -> rejectedCounts.put(group.name(), new LongAdder()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledGroup group = findGroup(request);
+        if (group != null) {
+            String key = group.name() + ":" + resolveKey(group, request);
+            long waitNanos = backend.tryConsume(key, group.bandwidth());
+            if (waitNanos > 0) {
+                rejectedCounts.get(group.name()).increment();
+                reject(request, response, group, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledGroup findGroup(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        String method = request.getMethod();
+        for (CompiledGroup group : groups) {
+            if (group.matchesMethod(method) && group.paths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private String resolveKey(CompiledGroup group, HttpServletRequest request) {
+        if (group.keyType() == RateLimitProperties.KeyType.USER) {
+            String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+                Claims claims = tokenProvider.parseClaims(bearerToken.substring(7)).orElse(null);
+                if (claims != null) {
+                    // Doğrulanmış claim'ler JwtAuthenticationFilter tarafından yeniden kullanılır
+                    request.setAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE, claims);
+                    Object userId = claims.get(JwtTokenProvider.CLAIM_USER_ID);
+                    return "u:" + (userId != null ? userId : claims.getSubject());
+                }
+            }
+        }
+        // Proxy arkasında gerçek istemci adresi için server.forward-headers-strategy ayarlanmalıdır
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, CompiledGroup group, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        logger.warn("Rate limit exceeded for group '{}' on {} {}", group.name(), request.getMethod(), request.getRequestURI());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                "Çok fazla istek gönderildi. Lütfen " + retryAfterSeconds + " saniye sonra tekrar deneyin.",
+                LocalDateTime.now(),
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    /**
+     * Grup adına göre 429 ile reddedilen istek sayıları.
+     */
+    public Map<String, Long> getRejectedCounts() {
+        return rejectedCounts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    private record CompiledGroup(String name, List<String> paths, List<String> methods,
+                                 RateLimitProperties.KeyType keyType, Bandwidth bandwidth) {
+
+        static CompiledGroup of(RateLimitProperties.Group group) {
+            return new CompiledGroup(group.getName(), List.copyOf(group.getPaths()),
+                    group.getMethods().stream().map(String::toUpperCase).toList(),
+                    group.getKey(), new Bandwidth(group.getCapacity(), group.getRefillTokens(), group.getRefillPeriod()));
+        }
+
+        boolean matchesMethod(String method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+    }
+}
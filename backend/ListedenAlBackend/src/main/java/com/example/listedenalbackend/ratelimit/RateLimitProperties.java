@@ -0,0 +1,55 @@
+package com.example.listedenalbackend.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hız sınırlama ayarları (app.rate-limit.*). Uç nokta grupları sırayla denenir; isteğe ilk eşleşen grubun kovası uygulanır.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Bellek içi backend'de tutulacak en fazla kova (anahtar) sayısı
+    private long maxKeys = 100_000;
+
+    // Bu süre boyunca kullanılmayan kova silinir (dolu kovayla aynı davranır; tam dolum süresinden kısa olmamalı)
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    private List<Group> groups = new ArrayList<>();
+
+    @Data
+    public static class Group {
+
+        private String name;
+
+        // Ant tarzı yol kalıpları (ör. /api/shoppinglists/**)
+        private List<String> paths = new ArrayList<>();
+
+        // Boşsa tüm HTTP metotları eşleşir
+        private List<String> methods = new ArrayList<>();
+
+        private KeyType key = KeyType.USER;
+
+        // Kova kapasitesi (anlık patlama sınırı)
+        private long capacity;
+
+        // refillPeriod süresinde eklenen token sayısı (sürekli hız)
+        private long refillTokens;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+
+    public enum KeyType {
+        // İstemci IP adresi
+        IP,
+        // Geçerli bir erişim token'ı varsa kullanıcı, yoksa IP adresi
+        USER
+    }
+}
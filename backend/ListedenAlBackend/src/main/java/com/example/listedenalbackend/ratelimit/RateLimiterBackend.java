@@ -0,0 +1,17 @@
+package com.example.listedenalbackend.ratelimit;
+
+/**
+ * Token kovalarının tutulduğu yer. Varsayılan uygulama düğüm başına bellek içidir ({@link InMemoryTokenBucketBackend});
+ * birden çok sunuculu kurulumlarda paylaşılan bir depo (ör. Redis) kullanan bir uygulama bean olarak tanımlanarak
+ * varsayılanın yerine geçirilebilir.
+ */
+public interface RateLimiterBackend {
+
+    /**
+     * Anahtarın kovasından bir token almaya çalışır.
+     * @param key Kova anahtarı (grup adı ve kullanıcı/IP).
+     * @param bandwidth Kova tanımı.
+     * @return Token alındıysa 0; alınamadıysa bir sonraki token'a kadar beklenmesi gereken süre (nanosaniye).
+     */
+    long tryConsume(String key, Bandwidth bandwidth);
+}
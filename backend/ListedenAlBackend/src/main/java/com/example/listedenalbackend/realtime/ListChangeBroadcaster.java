@@ -0,0 +1,401 @@
+package com.example.listedenalbackend.realtime;
+
+import com.example.listedenalbackend.model.ListShare.PermissionLevel;
+import com.example.listedenalbackend.service.ListPermissionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Alışveriş listesi değişikliklerini Server-Sent Events ile abonelere iletir.
+ * <p>
+ * Bağlantılar servlet async desteğiyle tutulur; boşta bekleyen abone için thread ayrılmaz.
+ * Olaylar commit sonrasında liste bazında kuyruğa alınır ve kısa aralıklarla toplu gönderilir:
+ * aynı varlığa ait ardışık değişikliklerden yalnızca sonuncusu iletilir. İstemciler bildirimi aldıktan sonra
+ * değişen kayıtları normal REST uçlarından çeker.
+ * <p>
+ * Gönderim iki aşamalıdır ve hiçbiri zamanlayıcı thread'inde çalışmaz:
+ * <ul>
+ *     <li>Dağıtım: her liste, ID'sine göre sabit bir dağıtım şeridine (tek thread'li yürütücü) düşer; yetki kontrolü ve
+ *     olayın abonelerin kuyruklarına eklenmesi orada yapılır. Aynı listenin olay grupları bu yüzden sırayla işlenir.</li>
+ *     <li>Yazma: her aboneliğin küçük, sınırlı bir gönderim kuyruğu (outbox) vardır ve bu kuyruk yazıcı havuzunda aynı anda
+ *     yalnızca bir thread tarafından boşaltılır; abone başına sıra korunur. {@link SseEmitter#send} engelleyen (blocking)
+ *     bir çağrı olduğundan, soketi dolmuş yavaş bir istemci yalnızca kendi yazıcı thread'ini bekletir.</li>
+ * </ul>
+ * Kuyruğu dolan veya tek bir gönderimi süre sınırını (send-timeout) aşan abone düşürülür: aboneliği kaldırılır, bekleyen
+ * olayları atılır ve bağlantı, takılı yazma Tomcat'in yazma zaman aşımıyla sonlandığında kapatılır.
+ * <p>
+ * Abonelikler düğüm (node) başınadır; birden fazla düğümde çalışırken olayların düğümler arasında dağıtılması gerekir.
+ */
+@Component
+public class ListChangeBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListChangeBroadcaster.class);
+
+    private final ListPermissionService listPermissionService;
+    private final long emitterTimeoutMs;
+    private final int outboxCapacity;
+    private final long sendTimeoutNanos;
+
+    private final ConcurrentMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Queue<ListChangeEvent>> pendingEvents = new ConcurrentHashMap<>();
+    // O anda send() içinde olan abonelikler; süre sınırı kontrolü yalnızca bunları tarar
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final ExecutorService[] fanOutLanes;
+    private final ThreadPoolExecutor writers;
+
+    public ListChangeBroadcaster(ListPermissionService listPermissionService,
+                                 @Value("${app.realtime.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                                 @Value("${app.realtime.fan-out-threads:2}") int fanOutThreads,
+                                 @Value("${app.realtime.writer-threads:16}") int writerThreads,
+                                 @Value("${app.realtime.outbox-capacity:32}") int outboxCapacity,
+                                 @Value("${app.realtime.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.listPermissionService = listPermissionService;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.outboxCapacity = outboxCapacity;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+
+        this.fanOutLanes = new ExecutorService[fanOutThreads];
+        for (int lane = 0; lane < fanOutThreads; lane++) {
+            fanOutLanes[lane] = Executors.newSingleThreadExecutor(new DaemonThreadFactory("sse-fan-out-" + lane + "-"));
+        }
+        // Kuyruk en fazla abone sayısı kadar büyür: her abonelik için aynı anda tek boşaltma işi kuyruktadır
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory("sse-writer-"));
+    }
+
+    /**
+     * Kullanıcıyı listenin değişiklik akışına abone eder.
+     * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Listeyi görüntüleme yetkisi yoksa (GlobalExceptionHandler yakalar).
+     */
+    public SseEmitter subscribe(Long shoppingListId, Long userId) {
+        listPermissionService.checkPermission(shoppingListId, userId, PermissionLevel.VIEWER,
+                "User does not have permission to view this shopping list.");
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscription subscription = new Subscription(shoppingListId, userId, emitter, outboxCapacity);
+
+        // İlk olay bağlantının kurulduğunu bildirir ve ara katmanların yanıtı tamponlamasını önler. Outbox'a konmaz: emitter
+        // henüz başlatılmadığı için tamponlanır ve yanıtı istek thread'i commit eder. Yazıcı thread'leri ancak bundan sonra
+        // yazar; filtreler (ör. güvenlik başlıkları) istek thread'inde yanıt başlıklarına dokunurken başka bir thread yazmaz.
+        try {
+            emitter.send(SseEmitter.event().name("subscribed").data(Map.of("shoppingListId", shoppingListId)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the event stream", e);
+        }
+
+        subscriptions.compute(shoppingListId, (id, listSubscriptions) -> {
+            Set<Subscription> updated = listSubscriptions != null ? listSubscriptions : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+        subscriberCount.incrementAndGet();
+
+        // Emitter kendiliğinden tamamlandıysa (istemci koptu, zaman aşımı) tekrar kapatılmaz
+        Runnable discard = () -> {
+            subscription.completed.set(true);
+            discard(subscription);
+        };
+        emitter.onCompletion(discard);
+        emitter.onTimeout(discard);
+        emitter.onError(e -> discard.run());
+        return emitter;
+    }
+
+    // Servislerin yayınladığı değişiklikler yalnızca commit başarılı olursa kuyruğa alınır
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListChange(ListChangeEvent event) {
+        if (!subscriptions.containsKey(event.shoppingListId())) {
+            return;
+        }
+        pendingEvents.compute(event.shoppingListId(), (id, queue) -> {
+            Queue<ListChangeEvent> updated = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            updated.add(event);
+            return updated;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.realtime.flush-interval-ms:250}")
+    public void flush() {
+        dropStalledSends();
+        for (Long shoppingListId : pendingEvents.keySet()) {
+            Queue<ListChangeEvent> queue = pendingEvents.remove(shoppingListId);
+            if (queue == null || queue.isEmpty()) {
+                continue;
+            }
+            List<ListChangeEvent> changes = coalesce(queue);
+            runOnLane(shoppingListId, () -> deliver(shoppingListId, changes));
+        }
+    }
+
+    // Yorum satırı olarak gönderilen nabız, kopmuş bağlantıların tespit edilip temizlenmesini sağlar.
+    // Yalnızca kuyruğa ekleme yapılır; yazmalar yazıcı havuzunda paralel yürür. Kuyruğunda olay bekleyen aboneye nabız gerekmez.
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscriptions.values().forEach(listSubscriptions -> listSubscriptions.forEach(subscription -> {
+            if (subscription.outbox.isEmpty()) {
+                enqueue(subscription, ping);
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Kuyruğu dolduğu veya gönderimi süre sınırını aştığı için düşürülen abone sayısı.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Yazıcı havuzunda sırada bekleyen abone kuyruğu boşaltma işi sayısı.
+     */
+    public int getWriterQueueDepth() {
+        return writers.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : fanOutLanes) {
+            lane.shutdownNow();
+        }
+        writers.shutdownNow();
+    }
+
+    private List<ListChangeEvent> coalesce(Queue<ListChangeEvent> queue) {
+        // Aynı varlığa ait olaylardan yalnızca sonuncusu, son gerçekleşme sırasıyla gönderilir
+        Map<String, ListChangeEvent> latest = new LinkedHashMap<>();
+        for (ListChangeEvent event : queue) {
+            String key = event.kind() + ":" + event.entityId();
+            latest.remove(key);
+            latest.put(key, event);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private void runOnLane(Long shoppingListId, Runnable task) {
+        ExecutorService lane = fanOutLanes[Math.floorMod(shoppingListId.hashCode(), fanOutLanes.length)];
+        try {
+            lane.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.warn("SSE fan-out for list {} failed", shoppingListId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("SSE fan-out rejected during shutdown");
+        }
+    }
+
+    private void deliver(Long shoppingListId, List<ListChangeEvent> changes) {
+        Set<Subscription> listSubscriptions = subscriptions.get(shoppingListId);
+        if (listSubscriptions == null) {
+            return;
+        }
+        boolean listDeleted = changes.stream()
+                .anyMatch(change -> change.kind() == ListChangeEvent.Kind.LIST && change.action() == ListChangeEvent.Action.DELETED);
+        // Paylaşım değişikliklerinde abonelerin erişimi kalkmış olabilir; yetki yeniden kontrol edilir
+        boolean sharesChanged = changes.stream().anyMatch(change -> change.kind() == ListChangeEvent.Kind.SHARE);
+        // Olay bir kez oluşturulur ve tüm abonelerin kuyruklarında paylaşılır
+        Set<DataWithMediaType> event = SseEmitter.event().name("changes")
+                .data(Map.of("shoppingListId", shoppingListId, "changes", changes)).build();
+
+        for (Subscription subscription : listSubscriptions) {
+            if (sharesChanged && !listDeleted && !listPermissionService.canView(shoppingListId, subscription.userId)) {
+                close(subscription);
+                continue;
+            }
+            enqueue(subscription, event);
+            if (listDeleted) {
+                close(subscription);
+            }
+        }
+    }
+
+    private void enqueue(Subscription subscription, Set<DataWithMediaType> event) {
+        if (subscription.dropped || subscription.closing) {
+            return;
+        }
+        if (!subscription.outbox.offer(event)) {
+            drop(subscription, "outbox full");
+            return;
+        }
+        scheduleDrain(subscription);
+    }
+
+    private void scheduleDrain(Subscription subscription) {
+        if (!subscription.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writers.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            subscription.draining.set(false);
+        }
+    }
+
+    // Aboneliğin kuyruğunu sırayla gönderir; aynı abonelik için aynı anda yalnızca bir yazıcı çalışır
+    private void drain(Subscription subscription) {
+        try {
+            Set<DataWithMediaType> event;
+            while (!subscription.dropped && (event = subscription.outbox.poll()) != null) {
+                if (!send(subscription, event)) {
+                    break;
+                }
+            }
+            if (subscription.dropped || (subscription.closing && subscription.outbox.isEmpty())) {
+                complete(subscription);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("SSE delivery to a subscriber of list {} failed", subscription.shoppingListId, e);
+        } finally {
+            subscription.draining.set(false);
+        }
+        // Boşaltma biterken eklenen olaylar kaçırılmaz
+        if (!subscription.outbox.isEmpty() && !subscription.dropped) {
+            scheduleDrain(subscription);
+        }
+    }
+
+    private boolean send(Subscription subscription, Set<DataWithMediaType> event) {
+        subscription.sendStartedNanos = System.nanoTime();
+        sending.add(subscription);
+        try {
+            subscription.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // İstemci bağlantısı kopmuş veya emitter zaten tamamlanmış
+            logger.debug("Dropping SSE subscriber of list {}: {}", subscription.shoppingListId, e.getMessage());
+            subscription.completed.set(true);
+            discard(subscription);
+            return false;
+        } finally {
+            sending.remove(subscription);
+        }
+    }
+
+    // Gönderimi süre sınırını aşan aboneler düşürülür; yazıcı thread'i Tomcat yazma zaman aşımında serbest kalır
+    private void dropStalledSends() {
+        long now = System.nanoTime();
+        for (Subscription subscription : sending) {
+            if (now - subscription.sendStartedNanos > sendTimeoutNanos) {
+                drop(subscription, "send timed out");
+            }
+        }
+    }
+
+    private void drop(Subscription subscription, String reason) {
+        if (subscription.dropped) {
+            return;
+        }
+        logger.debug("Dropping slow SSE subscriber of list {}: {}", subscription.shoppingListId, reason);
+        droppedCount.increment();
+        discard(subscription);
+        // Emitter, boşaltma işi tarafından kapatılır (takılı bir gönderim varsa o bittikten sonra)
+        scheduleDrain(subscription);
+    }
+
+    // Kuyruktaki olaylar gönderildikten sonra bağlantıyı kapatır (liste silindi, erişim kalktı)
+    private void close(Subscription subscription) {
+        subscription.closing = true;
+        unsubscribe(subscription);
+        scheduleDrain(subscription);
+    }
+
+    private void discard(Subscription subscription) {
+        subscription.dropped = true;
+        unsubscribe(subscription);
+        subscription.outbox.clear();
+    }
+
+    private void complete(Subscription subscription) {
+        if (subscription.completed.compareAndSet(false, true)) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        Long shoppingListId = subscription.shoppingListId;
+        Set<Subscription> listSubscriptions = subscriptions.get(shoppingListId);
+        if (listSubscriptions != null && listSubscriptions.remove(subscription)) {
+            subscriberCount.decrementAndGet();
+            subscriptions.computeIfPresent(shoppingListId, (id, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    private static final class Subscription {
+
+        private final Long shoppingListId;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> outbox;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closing; // Kuyruk gönderildikten sonra kapatılacak
+        private volatile boolean dropped; // Kuyruk atıldı, bir daha gönderim yapılmaz
+        private volatile long sendStartedNanos;
+
+        private Subscription(Long shoppingListId, Long userId, SseEmitter emitter, int outboxCapacity) {
+            this.shoppingListId = shoppingListId;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        }
+    }
+
+    // Gönderimler platform thread'lerinde yapılır: SseEmitter.send synchronized olduğundan sanal thread'i taşıyıcısına sabitler
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.listedenalbackend.realtime;
+
+/**
+ * Bir alışveriş listesinde gerçekleşen değişiklik. Servisler tarafından transaction içinde yayınlanır,
+ * commit sonrasında ListChangeBroadcaster tarafından listeye abone olan istemcilere iletilir.
+ */
+public record ListChangeEvent(Long shoppingListId, Kind kind, Action action, Long entityId) {
+
+    public enum Kind {
+        LIST,
+        ITEM,
+        SHARE
+    }
+
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ListChangeEvent list(Long shoppingListId, Action action) {
+        return new ListChangeEvent(shoppingListId, Kind.LIST, action, shoppingListId);
+    }
+
+    public static ListChangeEvent item(Long shoppingListId, Action action, Long itemId) {
+        return new ListChangeEvent(shoppingListId, Kind.ITEM, action, itemId);
+    }
+
+    public static ListChangeEvent share(Long shoppingListId, Action action, Long listShareId) {
+        return new ListChangeEvent(shoppingListId, Kind.SHARE, action, listShareId);
+    }
+}
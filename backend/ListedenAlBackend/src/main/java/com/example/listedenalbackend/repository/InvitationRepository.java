@@ -1,11 +1,18 @@
 package com.example.listedenalbackend.repository;
 
+import com.example.listedenalbackend.dto.InvitationView;
 import com.example.listedenalbackend.model.Invitation;
 import com.example.listedenalbackend.model.ShoppingList;
 import com.example.listedenalbackend.model.User;
 import com.example.listedenalbackend.model.Invitation.InvitationStatus;
+import com.example.listedenalbackend.repository.projection.InvitationAcceptRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +25,22 @@ public interface InvitationRepository extends JpaRepository<Invitation, Long> {
     // Belirli bir alıcı e-postası için bekleyen davetiyeleri bulma
     List<Invitation> findByRecipientEmailAndStatus(String recipientEmail, InvitationStatus status);
 
+    // Liste ve e-posta için bekleyen davetiye var mı (uq_invitations_pending_list_email indeksini kullanır)
+    @Query("select count(i) > 0 from Invitation i where i.shoppingList.id = :shoppingListId " +
+            "and lower(i.recipientEmail) = lower(:recipientEmail) and i.status = :status")
+    boolean existsByShoppingListIdAndRecipientEmailIgnoreCaseAndStatus(@Param("shoppingListId") Long shoppingListId,
+                                                                       @Param("recipientEmail") String recipientEmail,
+                                                                       @Param("status") InvitationStatus status);
+
+    // Liste ve e-posta için süresi geçmiş ama henüz süpürülmemiş bekleyen davetiyeyi kapatır (yeni davetiye benzersiz indekse takılmasın)
+    @Modifying
+    @Query("update Invitation i set i.status = :expired " +
+            "where i.shoppingList.id = :shoppingListId and lower(i.recipientEmail) = lower(:recipientEmail) " +
+            "and i.status = :pending and i.expiresAt <= :now")
+    int expireOverdueForListAndEmail(@Param("shoppingListId") Long shoppingListId, @Param("recipientEmail") String recipientEmail,
+                                     @Param("now") LocalDateTime now, @Param("pending") InvitationStatus pending,
+                                     @Param("expired") InvitationStatus expired);
+
     // Belirli bir kullanıcıya (kayıtlı) gönderilen bekleyen davetiyeleri bulma
     List<Invitation> findByRecipientUserAndStatus(User recipientUser, InvitationStatus status);
 
@@ -26,4 +49,56 @@ public interface InvitationRepository extends JpaRepository<Invitation, Long> {
 
     // Bir gönderici tarafından gönderilen tüm davetiyeleri bulma
     List<Invitation> findBySender(User sender);
+
+    // Belirli bir kullanıcıya gönderilen davetiyeleri liste adı ve gönderen e-postasıyla birlikte API okuma modeli olarak getirme
+    @Query("select new com.example.listedenalbackend.dto.InvitationView(i.id, l.id, l.name, s.id, s.email, i.recipientEmail, " +
+            "i.recipientUser.id, i.invitationCode, i.status, i.sentAt, i.expiresAt, i.acceptedAt) " +
+            "from Invitation i join i.shoppingList l join i.sender s " +
+            "where i.recipientUser.id = :recipientUserId and i.status = :status " +
+            "and (i.expiresAt is null or i.expiresAt > :now) order by i.sentAt desc")
+    List<InvitationView> findViewsByRecipientUserIdAndStatus(@Param("recipientUserId") Long recipientUserId,
+                                                             @Param("status") InvitationStatus status,
+                                                             @Param("now") LocalDateTime now);
+
+    // Davetiyeyi tek ifadede kabul eder: PENDING, süresi geçmemiş ve alıcı e-postası kullanıcınınkiyle eşleşiyorsa ACCEPTED yapar,
+    // liste sürümünü artırır ve EDITOR paylaşımı ekler (kullanıcının zaten paylaşımı varsa ON CONFLICT DO NOTHING).
+    // Durum geçişi koşullu UPDATE olduğundan aynı kod için eşzamanlı kabullerden yalnızca biri satır döndürür.
+    @Query(value = "with accepted as (" +
+            "update invitations i set status = 'ACCEPTED', acceptedat = :now, recipient_user_id = u.id from users u " +
+            "where i.invitationcode = :code and i.status = 'PENDING' and (i.expiresat is null or i.expiresat > :now) " +
+            "and u.id = :userId and lower(i.recipientemail) = lower(u.email) " +
+            "returning i.id, i.shopping_list_id, i.sender_id, i.recipientemail, i.recipient_user_id, i.invitationcode, " +
+            "i.status, i.sentat, i.expiresat, i.acceptedat), " +
+            "bumped as (" +
+            "update shopping_lists l set changeversion = l.changeversion + 1 from accepted a " +
+            "where l.id = a.shopping_list_id returning l.id, l.name, l.changeversion), " +
+            "share as (" +
+            "insert into list_shares (id, shopping_list_id, shared_user_id, permissionlevel, sharedat, changeversion) " +
+            "select nextval('list_shares_seq'), a.shopping_list_id, a.recipient_user_id, 'EDITOR', :now, b.changeversion " +
+            "from accepted a join bumped b on b.id = a.shopping_list_id " +
+            "on conflict (shopping_list_id, shared_user_id) do nothing returning id) " +
+            "select a.id as \"id\", a.shopping_list_id as \"shoppingListId\", b.name as \"shoppingListName\", " +
+            "a.sender_id as \"senderId\", s.email as \"senderEmail\", a.recipientemail as \"recipientEmail\", " +
+            "a.recipient_user_id as \"recipientUserId\", a.invitationcode as \"invitationCode\", a.status as \"status\", " +
+            "a.sentat as \"sentAt\", a.expiresat as \"expiresAt\", a.acceptedat as \"acceptedAt\", " +
+            "(select id from share) as \"shareId\" " +
+            "from accepted a join bumped b on b.id = a.shopping_list_id join users s on s.id = a.sender_id", nativeQuery = true)
+    Optional<InvitationAcceptRow> acceptPending(@Param("code") String code, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Süresi geçmiş bekleyen davetiyelerden en fazla batchSize tanesini EXPIRED yapar.
+    // SKIP LOCKED: başka bir sunucunun o anda işlediği satırlar atlanır, beklenmez.
+    @Modifying
+    @Transactional
+    @Query(value = "update invitations set status = 'EXPIRED' where id in (" +
+            "select id from invitations where status = 'PENDING' and expiresat < :now " +
+            "order by expiresat limit :batchSize for update skip locked)", nativeQuery = true)
+    int expireOverdue(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    // Verilen tarihten önce gönderilmiş kapanmış (ACCEPTED/REJECTED/EXPIRED) davetiyelerden en fazla batchSize tanesini siler
+    @Modifying
+    @Transactional
+    @Query(value = "delete from invitations where id in (" +
+            "select id from invitations where status <> 'PENDING' and sentat < :cutoff " +
+            "order by sentat limit :batchSize for update skip locked)", nativeQuery = true)
+    int purgeClosedSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.listedenalbackend.repository;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Liste ürünlerini filtreli ve keyset sayfalı sorgulamak için kriterler.
+ * Null bırakılan filtreler uygulanmaz; after* alanları önceki sayfanın son kaydını gösterir.
+ */
+@Data
+@NoArgsConstructor
+public class ListItemQuery {
+
+    public enum SortField {
+        CREATED_AT, // createdAt, id artan (eklenme sırası)
+        PRIORITY    // priority artan (1 = yüksek), önceliksizler en sonda; eşitlikte id artan
+    }
+
+    private Long shoppingListId;
+    private Boolean purchased;
+    private Integer priority;
+    private String namePrefix;
+    private SortField sort = SortField.CREATED_AT;
+
+    private Long afterId;
+    private LocalDateTime afterCreatedAt;
+    private Integer afterPriority;
+
+    private int limit;
+}
@@ -1,13 +1,27 @@
 package com.example.listedenalbackend.repository;
 
+import com.example.listedenalbackend.dto.ListItemView;
 import com.example.listedenalbackend.model.ListItem;
 import com.example.listedenalbackend.model.ShoppingList;
+import com.example.listedenalbackend.repository.projection.ListItemRow;
+import com.example.listedenalbackend.repository.projection.ListItemUpsertRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ListItemRepository extends JpaRepository<ListItem, Long> {
+public interface ListItemRepository extends JpaRepository<ListItem, Long>, ListItemRepositoryCustom {
+
+    // Tek ifadelik güncellemelerin döndürdüğü satır (ListItemRow alan adlarıyla)
+    String RETURNING_ROW = " returning id as \"id\", shopping_list_id as \"shoppingListId\", productname as \"productName\", " +
+            "quantity as \"quantity\", unit as \"unit\", ispurchased as \"purchased\", notes as \"notes\", " +
+            "added_by_user_id as \"addedByUserId\", purchased_by_user_id as \"purchasedByUserId\", priority as \"priority\", " +
+            "createdat as \"createdAt\", updatedat as \"updatedAt\", version as \"version\"";
 
     // Belirli bir alışveriş listesindeki tüm öğeleri bulma
     List<ListItem> findByShoppingList(ShoppingList shoppingList);
@@ -17,4 +31,73 @@ public interface ListItemRepository extends JpaRepository<ListItem, Long> {
 
     // Belirli bir alışveriş listesinde ürün adına göre öğe bulma
     List<ListItem> findByShoppingListAndProductNameContainingIgnoreCase(ShoppingList shoppingList, String productName);
+
+    // Toplu işlemler için: listeye ait ürünleri ID listesiyle tek IN sorgusunda bulma
+    List<ListItem> findByShoppingListIdAndIdIn(Long shoppingListId, Collection<Long> ids);
+
+    // URL'deki listeye ait olmayan ürünler bulunamamış sayılır
+    Optional<ListItem> findByIdAndShoppingListId(Long id, Long shoppingListId);
+
+    // Birleştirme anahtarı listede (verilen ürün dışında) satın alınmamış başka bir üründe kullanılıyor mu?
+    @Query("select count(i) > 0 from ListItem i where i.shoppingList.id = :shoppingListId and i.mergeKey = :mergeKey " +
+            "and i.isPurchased = false and (:excludedId is null or i.id <> :excludedId)")
+    boolean existsUnpurchasedByMergeKey(@Param("shoppingListId") Long shoppingListId, @Param("mergeKey") String mergeKey,
+                                        @Param("excludedId") Long excludedId);
+
+    // Toplu işlemler için: listedeki satın alınmamış ürünlerin kullandığı birleştirme anahtarları
+    @Query("select i.mergeKey from ListItem i where i.shoppingList.id = :shoppingListId and i.mergeKey is not null and i.isPurchased = false")
+    List<String> findUnpurchasedMergeKeys(@Param("shoppingListId") Long shoppingListId);
+
+    // Tek bir ürünü API okuma modeli olarak getirme (kullanıcı proxy'leri yüklenmez)
+    @Query("select new com.example.listedenalbackend.dto.ListItemView(i.id, i.shoppingList.id, i.productName, i.quantity, i.unit, i.isPurchased, i.notes, i.addedBy.id, i.purchasedBy.id, i.priority, i.createdAt, i.updatedAt, i.version) " +
+            "from ListItem i where i.id = :id and i.shoppingList.id = :shoppingListId")
+    Optional<ListItemView> findViewByIdAndShoppingListId(@Param("id") Long id, @Param("shoppingListId") Long shoppingListId);
+
+    // Delta senkronizasyon: listede verilen sürümden sonra eklenen veya değişen ürünler
+    @Query("select new com.example.listedenalbackend.dto.ListItemView(i.id, i.shoppingList.id, i.productName, i.quantity, i.unit, i.isPurchased, i.notes, i.addedBy.id, i.purchasedBy.id, i.priority, i.createdAt, i.updatedAt, i.version) " +
+            "from ListItem i where i.shoppingList.id = :shoppingListId and i.changeVersion > :sinceVersion")
+    List<ListItemView> findViewsChangedSince(@Param("shoppingListId") Long shoppingListId, @Param("sinceVersion") long sinceVersion);
+
+    // Aynı listede aynı birleştirme anahtarına sahip satın alınmamış ürün varsa miktarını artırır, yoksa yeni ürün ekler.
+    // Tek ifade ve kısmi benzersiz indeks sayesinde eşzamanlı eklemeler yinelenen satır oluşturamaz.
+    // ID, Hibernate'in pooled optimizer'ı ile çakışmaması için sequence'ten doğrudan (tam bir blok tüketilerek) alınır.
+    @Query(value = "insert into list_items (id, shopping_list_id, productname, quantity, unit, ispurchased, notes, added_by_user_id, " +
+            "priority, mergekey, changeversion, version, createdat, updatedat) " +
+            "values (nextval('list_items_seq'), :shoppingListId, :productName, :quantity, cast(:unit as varchar), false, cast(:notes as varchar), " +
+            ":userId, cast(:priority as integer), :mergeKey, :changeVersion, 0, :now, :now) " +
+            "on conflict (shopping_list_id, mergekey) where mergekey is not null and not ispurchased " +
+            "do update set quantity = list_items.quantity + excluded.quantity, changeversion = excluded.changeversion, " +
+            "version = list_items.version + 1, updatedat = excluded.updatedat" + RETURNING_ROW + ", (xmax = 0) as \"inserted\"", nativeQuery = true)
+    ListItemUpsertRow upsertMergeable(@Param("shoppingListId") Long shoppingListId, @Param("productName") String productName,
+                                      @Param("quantity") double quantity, @Param("unit") String unit, @Param("notes") String notes,
+                                      @Param("userId") Long userId, @Param("priority") Integer priority, @Param("mergeKey") String mergeKey,
+                                      @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
+
+    // Satın alınma durumunu yalnızca ürün hâlâ diğer durumdaysa değiştirir (compare-and-set); başka biri önce işaretlediyse satır dönmez.
+    // Satın alınan ürünün birleştirme anahtarı kaldırılır; satın alınmadığa dönen ürün, listede aynı anahtarı tutan başka
+    // satın alınmamış ürün yoksa anahtarını geri alır ve yeniden birleştirmeye katılır.
+    @Query(value = "update list_items set ispurchased = :purchased, " +
+            "purchased_by_user_id = case when :purchased then cast(:userId as bigint) else null end, " +
+            "mergekey = case when :purchased then null " +
+            "when not exists (select 1 from list_items o where o.shopping_list_id = list_items.shopping_list_id " +
+            "and o.mergekey = list_item_merge_key(list_items.productname, list_items.unit) and not o.ispurchased) " +
+            "then list_item_merge_key(list_items.productname, list_items.unit) end, " +
+            "changeversion = :changeVersion, version = version + 1, updatedat = :now " +
+            "where id = :id and shopping_list_id = :shoppingListId and ispurchased <> :purchased" + RETURNING_ROW, nativeQuery = true)
+    Optional<ListItemRow> updatePurchasedIfChanged(@Param("id") Long id, @Param("shoppingListId") Long shoppingListId,
+                                                   @Param("purchased") boolean purchased, @Param("userId") Long userId,
+                                                   @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
+
+    // Miktarı veritabanında artırır/azaltır; eşzamanlı değişiklikler birbirini ezmez. Sonuç pozitif kalmazsa satır dönmez.
+    @Query(value = "update list_items set quantity = quantity + :delta, " +
+            "changeversion = :changeVersion, version = version + 1, updatedat = :now " +
+            "where id = :id and shopping_list_id = :shoppingListId and quantity + :delta > 0" + RETURNING_ROW, nativeQuery = true)
+    Optional<ListItemRow> addQuantity(@Param("id") Long id, @Param("shoppingListId") Long shoppingListId, @Param("delta") double delta,
+                                      @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
+
+    @Query(value = "update list_items set priority = :priority, " +
+            "changeversion = :changeVersion, version = version + 1, updatedat = :now " +
+            "where id = :id and shopping_list_id = :shoppingListId" + RETURNING_ROW, nativeQuery = true)
+    Optional<ListItemRow> updatePriority(@Param("id") Long id, @Param("shoppingListId") Long shoppingListId, @Param("priority") int priority,
+                                         @Param("changeVersion") long changeVersion, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
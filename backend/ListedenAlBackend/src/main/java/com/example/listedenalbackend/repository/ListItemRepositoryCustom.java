@@ -0,0 +1,11 @@
+package com.example.listedenalbackend.repository;
+
+import com.example.listedenalbackend.dto.ListItemView;
+import java.util.List;
+
+// Spring Data türetilmiş sorgularıyla ifade edilemeyen dinamik ürün sorguları
+public interface ListItemRepositoryCustom {
+
+    // Filtreleri ve keyset imlecini uygulayarak en fazla query.limit kadar ürün döndürür
+    List<ListItemView> findViews(ListItemQuery query);
+}
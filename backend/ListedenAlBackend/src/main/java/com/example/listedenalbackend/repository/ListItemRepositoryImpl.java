@@ -0,0 +1,86 @@
+package com.example.listedenalbackend.repository;
+
+import com.example.listedenalbackend.dto.ListItemView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ListItemRepositoryCustom gerçekleştirimi. Sorgu yalnızca verilen filtrelerle kurulur; böylece her kombinasyon
+ * list_items üzerindeki (shopping_list_id, ...) bileşik indekslerinden birini kullanabilir.
+ */
+public class ListItemRepositoryImpl implements ListItemRepositoryCustom {
+
+    private static final String SELECT_VIEW = "select new com.example.listedenalbackend.dto.ListItemView(" +
+            "i.id, i.shoppingList.id, i.productName, i.quantity, i.unit, i.isPurchased, i.notes, " +
+            "i.addedBy.id, i.purchasedBy.id, i.priority, i.createdAt, i.updatedAt, i.version) " +
+            "from ListItem i where i.shoppingList.id = :shoppingListId";
+
+    private static final char LIKE_ESCAPE = '!';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ListItemView> findViews(ListItemQuery query) {
+        StringBuilder jpql = new StringBuilder(SELECT_VIEW);
+        Map<String, Object> params = new HashMap<>();
+        params.put("shoppingListId", query.getShoppingListId());
+
+        if (query.getPurchased() != null) {
+            jpql.append(" and i.isPurchased = :purchased");
+            params.put("purchased", query.getPurchased());
+        }
+        if (query.getPriority() != null) {
+            jpql.append(" and i.priority = :priority");
+            params.put("priority", query.getPriority());
+        }
+        if (StringUtils.hasText(query.getNamePrefix())) {
+            jpql.append(" and lower(i.productName) like :namePrefix escape '").append(LIKE_ESCAPE).append("'");
+            params.put("namePrefix", escapeLike(query.getNamePrefix().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+
+        if (query.getSort() == ListItemQuery.SortField.PRIORITY) {
+            if (query.getAfterId() != null) {
+                if (query.getAfterPriority() != null) {
+                    // Önceliksiz (null) ürünler sıralamanın sonunda olduğundan her zaman imlecin ardındadır
+                    jpql.append(" and (i.priority > :afterPriority or (i.priority = :afterPriority and i.id > :afterId) or i.priority is null)");
+                    params.put("afterPriority", query.getAfterPriority());
+                } else {
+                    jpql.append(" and i.priority is null and i.id > :afterId");
+                }
+                params.put("afterId", query.getAfterId());
+            }
+            jpql.append(" order by i.priority asc nulls last, i.id asc");
+        } else {
+            if (query.getAfterId() != null) {
+                jpql.append(" and (i.createdAt > :afterCreatedAt or (i.createdAt = :afterCreatedAt and i.id > :afterId))");
+                params.put("afterCreatedAt", query.getAfterCreatedAt());
+                params.put("afterId", query.getAfterId());
+            }
+            jpql.append(" order by i.createdAt asc, i.id asc");
+        }
+
+        TypedQuery<ListItemView> typedQuery = entityManager.createQuery(jpql.toString(), ListItemView.class);
+        params.forEach(typedQuery::setParameter);
+        typedQuery.setMaxResults(query.getLimit());
+        return typedQuery.getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
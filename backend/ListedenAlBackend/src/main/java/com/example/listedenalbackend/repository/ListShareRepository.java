@@ -1,10 +1,14 @@
 package com.example.listedenalbackend.repository;
 
+import com.example.listedenalbackend.dto.ListShareView;
 import com.example.listedenalbackend.model.ListShare;
 import com.example.listedenalbackend.model.ShoppingList;
 import com.example.listedenalbackend.model.User;
 import com.example.listedenalbackend.model.ListShare.PermissionLevel;
+import com.example.listedenalbackend.repository.projection.ListAccessView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -23,4 +27,21 @@ public interface ListShareRepository extends JpaRepository<ListShare, Long> {
 
     // Belirli bir kullanıcının belirli bir izin seviyesine sahip olduğu listeleri bulma
     List<ListShare> findBySharedUserAndPermissionLevel(User sharedUser, PermissionLevel permissionLevel);
+
+    // Kullanıcının bir liste üzerindeki erişimini (liste sahibi ve paylaşım yetkisi) tek sorguda bulma.
+    // (shopping_list_id, shared_user_id) benzersiz indeksini kullanır; liste yoksa boş döner.
+    @Query("select l.owner.id as ownerId, ls.permissionLevel as permissionLevel " +
+            "from ShoppingList l left join ListShare ls on ls.shoppingList = l and ls.sharedUser.id = :userId " +
+            "where l.id = :shoppingListId")
+    Optional<ListAccessView> findAccess(@Param("shoppingListId") Long shoppingListId, @Param("userId") Long userId);
+
+    // Bir listedeki paylaşımları, paylaşılan kullanıcının e-postasıyla birlikte API okuma modeli olarak getirme
+    @Query("select new com.example.listedenalbackend.dto.ListShareView(ls.id, ls.shoppingList.id, u.id, u.email, ls.permissionLevel, ls.sharedAt) " +
+            "from ListShare ls join ls.sharedUser u where ls.shoppingList.id = :shoppingListId order by ls.sharedAt")
+    List<ListShareView> findViewsByShoppingListId(@Param("shoppingListId") Long shoppingListId);
+
+    // Delta senkronizasyon: listede verilen sürümden sonra eklenen veya değişen paylaşımlar
+    @Query("select new com.example.listedenalbackend.dto.ListShareView(ls.id, ls.shoppingList.id, u.id, u.email, ls.permissionLevel, ls.sharedAt) " +
+            "from ListShare ls join ls.sharedUser u where ls.shoppingList.id = :shoppingListId and ls.changeVersion > :sinceVersion")
+    List<ListShareView> findViewsChangedSince(@Param("shoppingListId") Long shoppingListId, @Param("sinceVersion") long sinceVersion);
 }
\ No newline at end of file
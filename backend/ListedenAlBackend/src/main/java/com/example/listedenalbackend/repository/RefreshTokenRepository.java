@@ -0,0 +1,47 @@
+package com.example.listedenalbackend.repository;
+
+import com.example.listedenalbackend.model.RefreshToken;
+import com.example.listedenalbackend.repository.projection.RefreshTokenSessionRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Token özetine göre token'ı ve sahibinin e-postasını getirir (tokenhash benzersiz indeksini kullanır)
+    @Query(value = "select t.id as \"id\", t.user_id as \"userId\", u.email as \"email\", t.familyid as \"familyId\", " +
+            "t.expiresat as \"expiresAt\", t.usedat as \"usedAt\", t.revokedat as \"revokedAt\" " +
+            "from refresh_tokens t join users u on u.id = t.user_id where t.tokenhash = :tokenHash", nativeQuery = true)
+    Optional<RefreshTokenSessionRow> findSessionByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Token'ı koşullu olarak tüketir; aynı token ile eşzamanlı iki yenilemeden yalnızca biri 1 döner
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :now " +
+            "where t.id = :id and t.usedAt is null and t.revokedAt is null and t.expiresAt > :now")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Bir token ailesinin tüm token'larını iptal eder (yeniden kullanım tespiti veya çıkış)
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :now where t.familyId = :familyId and t.revokedAt is null")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    // Kullanıcının tüm token'larını iptal eder (şifre/e-posta değişikliği)
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :now where t.userId = :userId and t.revokedAt is null")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Süresi geçmiş token'lardan en fazla batchSize tanesini siler (SKIP LOCKED: başka sunucunun işlediği satırlar atlanır)
+    @Modifying
+    @Transactional
+    @Query(value = "delete from refresh_tokens where id in (" +
+            "select id from refresh_tokens where expiresat < :cutoff " +
+            "order by expiresat limit :batchSize for update skip locked)", nativeQuery = true)
+    int purgeExpiredBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
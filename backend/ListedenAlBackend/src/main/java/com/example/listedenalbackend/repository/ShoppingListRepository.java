@@ -1,9 +1,16 @@
 package com.example.listedenalbackend.repository;
 
+import com.example.listedenalbackend.dto.ShoppingListView;
 import com.example.listedenalbackend.model.ShoppingList;
 import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.repository.projection.ListVersionView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +26,52 @@ public interface ShoppingListRepository extends JpaRepository<ShoppingList, Long
     // Arşivlenmemiş listeleri bulma
     List<ShoppingList> findByIsArchivedFalse();
 
-    // Bir kullanıcı tarafından oluşturulan veya paylaşılan tüm listeleri bulma
-    // Not: Bu karmaşık bir sorgu olabilir, @Query ile veya Service katmanında ListShareRepository kullanarak yapılabilir.
-    // Şimdilik sadece owner için olanı ekledik.
+    // Bir kullanıcının sahibi olduğu veya kendisine paylaşılan listeleri tek sorguda bulma (updatedAt, id azalan sırada).
+    // İlk sayfa için kullanılır; Limit.unlimited() ile tüm listeler alınabilir.
+    @Query("select new com.example.listedenalbackend.dto.ShoppingListView(l.id, l.name, l.description, l.owner.id, l.createdAt, l.updatedAt, l.isArchived, l.version) " +
+            "from ShoppingList l " +
+            "where (l.owner.id = :userId or exists (select 1 from ListShare ls where ls.shoppingList = l and ls.sharedUser.id = :userId)) " +
+            "and l.isArchived in :archivedStates " +
+            "order by l.updatedAt desc, l.id desc")
+    List<ShoppingListView> findAccessible(@Param("userId") Long userId,
+                                          @Param("archivedStates") Collection<Boolean> archivedStates,
+                                          Limit limit);
+
+    // Keyset sayfalama: verilen imlecin (updatedAt, id) ardından gelen erişilebilir listeler.
+    @Query("select new com.example.listedenalbackend.dto.ShoppingListView(l.id, l.name, l.description, l.owner.id, l.createdAt, l.updatedAt, l.isArchived, l.version) " +
+            "from ShoppingList l " +
+            "where (l.owner.id = :userId or exists (select 1 from ListShare ls where ls.shoppingList = l and ls.sharedUser.id = :userId)) " +
+            "and l.isArchived in :archivedStates " +
+            "and (l.updatedAt < :cursorUpdatedAt or (l.updatedAt = :cursorUpdatedAt and l.id < :cursorId)) " +
+            "order by l.updatedAt desc, l.id desc")
+    List<ShoppingListView> findAccessibleAfter(@Param("userId") Long userId,
+                                                   @Param("archivedStates") Collection<Boolean> archivedStates,
+                                               @Param("cursorUpdatedAt") LocalDateTime cursorUpdatedAt,
+                                               @Param("cursorId") Long cursorId,
+                                                   Limit limit);
+
+    @Query("select new com.example.listedenalbackend.dto.ShoppingListView(l.id, l.name, l.description, l.owner.id, l.createdAt, l.updatedAt, l.isArchived, l.version) " +
+            "from ShoppingList l where l.id = :id")
+    Optional<ShoppingListView> findViewById(@Param("id") Long id);
+
+    @Query("select new com.example.listedenalbackend.dto.ShoppingListView(l.id, l.name, l.description, l.owner.id, l.createdAt, l.updatedAt, l.isArchived, l.version) " +
+            "from ShoppingList l where l.id in :ids")
+    List<ShoppingListView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Kullanıcının erişebildiği listelerin güncel değişiklik sürümleri (delta senkronizasyon)
+    @Query("select l.id as id, l.changeVersion as changeVersion from ShoppingList l " +
+            "where l.owner.id = :userId or exists (select 1 from ListShare ls where ls.shoppingList = l and ls.sharedUser.id = :userId)")
+    List<ListVersionView> findAccessibleVersions(@Param("userId") Long userId);
+
+    // Listenin değişiklik sürümünü atomik olarak artırıp yeni değeri döndürür.
+    // Satır kilidi transaction sonuna kadar tutulduğundan aynı listeye yapılan yazmalar sürüm sırasıyla commit edilir.
+    @Query(value = "update shopping_lists set changeversion = changeversion + 1 where id = :id returning changeversion", nativeQuery = true)
+    Long incrementChangeVersion(@Param("id") Long id);
+
+    // Sürüm yalnızca beklenen değerdeyse artırılır (If-Match); eşleşmezse satır dönmez
+    @Query(value = "update shopping_lists set changeversion = changeversion + 1 where id = :id and changeversion = :expectedVersion returning changeversion", nativeQuery = true)
+    Long incrementChangeVersionIfCurrent(@Param("id") Long id, @Param("expectedVersion") long expectedVersion);
+
+    @Query("select l.changeVersion from ShoppingList l where l.id = :id")
+    Optional<Long> findChangeVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.listedenalbackend.repository;
+
+import com.example.listedenalbackend.model.Tombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    // Bir listede belirli bir sürümden sonra silinen kayıtları bulma
+    List<Tombstone> findByShoppingListIdAndChangeVersionGreaterThan(Long shoppingListId, long changeVersion);
+
+    // Liste silindiğinde listeye ait izleri temizleme
+    @Modifying
+    @Query("delete from Tombstone t where t.shoppingListId = :shoppingListId")
+    int deleteByShoppingListId(@Param("shoppingListId") Long shoppingListId);
+}
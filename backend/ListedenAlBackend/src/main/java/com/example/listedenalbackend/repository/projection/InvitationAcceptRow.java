@@ -0,0 +1,36 @@
+package com.example.listedenalbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tek ifadelik davetiye kabulünün döndürdüğü satır: kabul edilen davetiye (InvitationView alanları)
+ * ve oluşturulan paylaşımın ID'si (kullanıcının listeye zaten erişimi varsa null).
+ */
+public interface InvitationAcceptRow {
+
+    Long getId();
+
+    Long getShoppingListId();
+
+    String getShoppingListName();
+
+    Long getSenderId();
+
+    String getSenderEmail();
+
+    String getRecipientEmail();
+
+    Long getRecipientUserId();
+
+    String getInvitationCode();
+
+    String getStatus();
+
+    LocalDateTime getSentAt();
+
+    LocalDateTime getExpiresAt();
+
+    LocalDateTime getAcceptedAt();
+
+    Long getShareId();
+}
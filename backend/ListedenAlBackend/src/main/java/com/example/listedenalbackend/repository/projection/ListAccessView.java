@@ -0,0 +1,14 @@
+package com.example.listedenalbackend.repository.projection;
+
+import com.example.listedenalbackend.model.ListShare;
+
+/**
+ * Bir kullanıcının bir alışveriş listesine erişimini tek sorguda döndüren projeksiyon.
+ * Kullanıcının paylaşım kaydı yoksa permissionLevel null olur.
+ */
+public interface ListAccessView {
+
+    Long getOwnerId();
+
+    ListShare.PermissionLevel getPermissionLevel();
+}
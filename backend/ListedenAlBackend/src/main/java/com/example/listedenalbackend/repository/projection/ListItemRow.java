@@ -0,0 +1,35 @@
+package com.example.listedenalbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Native "update ... returning" sorgularının döndürdüğü ürün satırı; alanlar ListItemView ile aynıdır.
+ */
+public interface ListItemRow {
+
+    Long getId();
+
+    Long getShoppingListId();
+
+    String getProductName();
+
+    Double getQuantity();
+
+    String getUnit();
+
+    Boolean getPurchased();
+
+    String getNotes();
+
+    Long getAddedByUserId();
+
+    Long getPurchasedByUserId();
+
+    Integer getPriority();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+}
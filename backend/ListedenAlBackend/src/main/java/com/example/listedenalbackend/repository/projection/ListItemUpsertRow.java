@@ -0,0 +1,9 @@
+package com.example.listedenalbackend.repository.projection;
+
+/**
+ * Birleştirerek ekleme (upsert) sonucu: ürün satırı ve satırın yeni eklenip eklenmediği.
+ */
+public interface ListItemUpsertRow extends ListItemRow {
+
+    Boolean getInserted();
+}
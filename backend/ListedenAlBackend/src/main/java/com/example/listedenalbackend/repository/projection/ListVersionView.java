@@ -0,0 +1,11 @@
+package com.example.listedenalbackend.repository.projection;
+
+/**
+ * Bir alışveriş listesinin ID'si ve güncel değişiklik sürümü.
+ */
+public interface ListVersionView {
+
+    Long getId();
+
+    long getChangeVersion();
+}
@@ -0,0 +1,23 @@
+package com.example.listedenalbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Yenileme token'ının doğrulanması için gereken alanlar ve sahibinin e-postası (tek sorguda okunur).
+ */
+public interface RefreshTokenSessionRow {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getEmail();
+
+    String getFamilyId();
+
+    LocalDateTime getExpiresAt();
+
+    LocalDateTime getUsedAt();
+
+    LocalDateTime getRevokedAt();
+}
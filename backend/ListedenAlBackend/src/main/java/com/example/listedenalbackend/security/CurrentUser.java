@@ -0,0 +1,20 @@
+package com.example.listedenalbackend.security;
+
+import io.swagger.v3.oas.annotations.Parameter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Controller metot parametresine kimliği doğrulanmış kullanıcının ID'sini (Long) veya UserPrincipal nesnesini enjekte eder.
+ * Değer, JwtAuthenticationFilter'ın SecurityContext'e koyduğu UserPrincipal'dan okunur; ek sorgu çalıştırılmaz.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Parameter(hidden = true)
+public @interface CurrentUser {
+}
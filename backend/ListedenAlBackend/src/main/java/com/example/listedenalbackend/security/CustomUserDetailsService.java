@@ -6,6 +6,7 @@ import com.example.listedenalbackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,13 +16,15 @@ import java.util.Collection;
 import java.util.stream.Collectors;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
@@ -38,10 +41,33 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .collect(Collectors.toList());
 
         // Burada, kullanıcı adı yerine e-posta kullanarak `UserDetails` döndürüyoruz.
-        return new org.springframework.security.core.userdetails.User(
+        // UserPrincipal kullanıcı ID'sini de taşır; böylece self-contained token'a ID eklenebilir.
+        return new UserPrincipal(
+                user.getId(),
                 user.getEmail(),
                 user.getPasswordHash(),
                 authorities
         );
     }
+
+    /**
+     * Başarılı girişte kayıtlı hash'in önek veya maliyeti güncel değilse (PasswordEncoder.upgradeEncoding)
+     * DaoAuthenticationProvider tarafından yeni hash ile çağrılır. Şifre değişmediği için token'lar iptal edilmez.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPasswordHash(newPassword);
+        userRepository.save(user);
+        userPrincipalCache.invalidate(user.getEmail());
+
+        return new UserPrincipal(
+                user.getId(),
+                user.getEmail(),
+                newPassword,
+                userDetails.getAuthorities()
+        );
+    }
 }
@@ -0,0 +1,83 @@
+package com.example.listedenalbackend.security;
+
+import com.example.listedenalbackend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Kullanıcı başına token sürümü (version).
+ * Self-contained JWT'ler üretildikleri andaki sürümü "ver" claim'i olarak taşır; kullanıcının sürümü artırıldığında
+ * (şifre/e-posta değişikliği, silme) eski sürümle imzalanmış token'lar reddedilir.
+ * Sürüm users.tokenVersion sütununda saklanır; iptaller yeniden başlatmada kaybolmaz. Doğrulamada her istekte
+ * sorgu yapılmaması için sürümler kısa süreli (TTL) önbelleklenir: iptal eden düğümde anında, diğer düğümlerde
+ * en geç TTL sonunda geçerli olur.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Silinmiş kullanıcıların hiçbir token'ı geçerli sayılmaz
+    private static final int REVOKED = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> cache;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${app.auth.token-version-cache.max-size:10000}") long maxSize,
+                                @Value("${app.auth.token-version-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public int currentVersion(Long userId) {
+        return cache.get(userId, id -> userRepository.findTokenVersionById(id).orElse(REVOKED));
+    }
+
+    /**
+     * Kullanıcının token sürümünü artırarak mevcut tüm self-contained token'larını geçersiz kılar.
+     * Önbellek kaydı hemen ve (aktif transaction varsa) commit sonrasında tekrar silinir.
+     * @param userId Kullanıcı ID'si.
+     */
+    @Transactional
+    public void revoke(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        userRepository.incrementTokenVersion(userId);
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    /**
+     * Önbellek isabet/ıska istatistiklerini döndürür.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.listedenalbackend.security;
+
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Kimliği doğrulanmış kullanıcıyı temsil eden principal.
+ * Spring Security'nin standart User sınıfından farklı olarak kullanıcı ID'sini de taşır;
+ * böylece ID'ye ihtiyaç duyan katmanlar tekrar veritabanı sorgusu çalıştırmaz.
+ * Kullanıcı adı olarak e-posta kullanılır.
+ */
+@Getter
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private String password; // Self-contained token ile oluşturulduğunda null olabilir
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{id=" + id + ", email=" + email + ", authorities=" + authorities + "}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.listedenalbackend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * JWT ile doğrulanan isteklerde kullanıcı detaylarını (principal) token konusuna (e-posta) göre önbellekler.
+ * Böylece her istekte kullanıcı ve rol sorguları çalıştırılmaz.
+ * Kayıtlar boyut ve süre (TTL) ile sınırlıdır; kullanıcı veya rol değişikliklerinde açıkça geçersiz kılınmalıdır.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserPrincipalCache(@Value("${app.auth.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${app.auth.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Önbellekteki kullanıcı detaylarını döndürür; yoksa verilen yükleyici ile yükleyip önbelleğe ekler.
+     * @param username Token konusu (e-posta).
+     * @param loader Önbellekte kayıt yoksa çağrılacak yükleyici.
+     * @return Kullanıcı detayları.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    /**
+     * Belirli bir kullanıcının önbellek kaydını siler (profil, şifre veya rol değişikliğinde çağrılır).
+     * Aktif bir transaction varsa kayıt commit sonrasında tekrar silinir; böylece commit öncesinde
+     * eski veriyle yeniden doldurulan kayıtlar önbellekte kalmaz.
+     * @param username Kullanıcının e-postası.
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Önbellek isabet/ıska istatistiklerini döndürür.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
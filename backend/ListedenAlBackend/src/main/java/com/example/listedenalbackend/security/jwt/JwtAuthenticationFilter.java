@@ -1,6 +1,8 @@
 package com.example.listedenalbackend.security.jwt;
 
 import com.example.listedenalbackend.security.CustomUserDetailsService;
+import com.example.listedenalbackend.security.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,15 +19,22 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Zincirde daha önce (RateLimitFilter) doğrulanmış token claim'lerinin tutulduğu istek özniteliği
+    public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     @Override
@@ -35,13 +44,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // İstekten JWT'yi al
             String jwt = getJwtFromRequest(request);
 
-            // JWT mevcut ve geçerliyse işleme devam et
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // JWT'den kullanıcı adını al
-                String username = tokenProvider.getUsernameFromJwtToken(jwt);
-
-                // Kullanıcı detaylarını yükle ve kimlik doğrulamasını SecurityContext'e ayarla
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            // JWT mevcut ve geçerliyse işleme devam et (token tek seferde ayrıştırılır ve doğrulanır;
+            // hız sınırlayıcı token'ı zaten doğruladıysa claim'leri yeniden kullanılır)
+            Optional<Claims> claims = Optional.ofNullable((Claims) request.getAttribute(CLAIMS_ATTRIBUTE));
+            if (claims.isEmpty() && StringUtils.hasText(jwt)) {
+                claims = tokenProvider.parseClaims(jwt);
+            }
+            if (claims.isPresent() && !tokenProvider.hasCurrentTokenVersion(claims.get())) {
+                // İptal edilmiş (sürümü eskimiş) token; veritabanına düşmeden reddet
+                logger.warn("Revoked JWT token for subject: {}", claims.get().getSubject());
+            } else if (claims.isPresent()) {
+                // Self-contained token ise kullanıcıyı doğrudan claim'lerden oluştur; değilse önbellekten al
+                // (yoksa veritabanından yükle) ve kimlik doğrulamasını SecurityContext'e ayarla
+                String username = claims.get().getSubject();
+                UserDetails userDetails = tokenProvider.getPrincipalFromClaims(claims.get())
+                        .map(UserDetails.class::cast)
+                        .orElseGet(() -> userPrincipalCache.get(username, customUserDetailsService::loadUserByUsername));
                 // Kimlik doğrulama nesnesi oluşturulurken yetkiler (authorities) açıkça belirtilmelidir.
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
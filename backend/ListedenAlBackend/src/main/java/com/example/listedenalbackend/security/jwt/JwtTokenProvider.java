@@ -2,35 +2,80 @@
 // Uygulama genelinde JWT ile ilgili tüm operasyonları merkezi bir şekilde yönetir.
 package com.example.listedenalbackend.security.jwt;
 
+import com.example.listedenalbackend.security.TokenVersionRegistry;
+import com.example.listedenalbackend.security.UserPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.io.Decoders;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // Self-contained token'larda kullanılan claim adları
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
+    // true ise token'a kullanıcı ID'si, rolleri ve token sürümü eklenir; filtre kullanıcıyı veritabanından yüklemez.
+    @Value("${app.jwt.self-contained:false}")
+    private boolean selfContained;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // İmzalama anahtarı ve ayrıştırıcı (parser) başlatma sırasında bir kez oluşturulur ve tüm isteklerde yeniden kullanılır.
+    // JwtParser değişmez (immutable) ve thread-safe olduğundan paylaşılması güvenlidir.
+    private Key signingKey;
+    private JwtParser jwtParser;
 
-    // JWT gizli anahtarını Base64'ten çözerek bir Key nesnesi oluşturur.
-    // Spring'in @Value enjeksiyonu ve @Component yapısı ile bir kez başlatma sırasında gerçekleşecektir.
-    private Key key() {
+    // Token doğrulama süreleri; sonuç etiketine göre (geçerli/geçersiz) ayrı tutulur
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+
+    @PostConstruct
+    void init() {
         // Güvenlik: jwtSecret'ın yeterince uzun ve karmaşık olduğundan emin olun.
         // En az 256 bit (32 karakter) uzunluğunda olması önerilir.
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.validTokenTimer = Timer.builder("jwt.validation")
+                .description("JWT parse and signature verification time")
+                .tag("result", "valid")
+                .register(meterRegistry);
+        this.invalidTokenTimer = Timer.builder("jwt.validation")
+                .description("JWT parse and signature verification time")
+                .tag("result", "invalid")
+                .register(meterRegistry);
     }
 
     /**
@@ -54,45 +99,75 @@ public class JwtTokenProvider {
         // .setExpiration(): Token'ın ne zaman geçerliliğini yitireceği.
         // .signWith(): Token'ı belirtilen anahtar ve algoritma ile imzalar.
         // .compact(): Oluşturulan JWT'yi sıkıştırılmış String formatına dönüştürür.
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .setExpiration(expiryDate);
+
+        // Self-contained modda kimlik doğrulama için gereken her şey token'ın içine yazılır.
+        if (selfContained && userPrincipal instanceof UserPrincipal principal) {
+            List<String> roles = principal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+            builder.claim(CLAIM_USER_ID, principal.getId())
+                    .claim(CLAIM_ROLES, roles)
+                    .claim(CLAIM_TOKEN_VERSION, tokenVersionRegistry.currentVersion(principal.getId()));
+        }
+
+        return builder
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Verilen JWT'den kullanıcının adını (subject) çıkarır.
-     * @param token JWT String'i.
-     * @return Token'ın konusu olan kullanıcı adı.
-     * @throws JwtException Token ayrıştırma veya doğrulama sırasında bir hata oluşursa.
+     * Self-contained mod açıksa ve token gerekli claim'leri taşıyorsa, kullanıcıyı veritabanına gitmeden claim'lerden oluşturur.
+     * @param claims Doğrulanmış token claim'leri.
+     * @return Claim'lerden oluşturulan principal veya self-contained değilse boş Optional.
      */
-    public String getUsernameFromJwtToken(String token) {
-        // JWT'yi ayrıştırma ve doğrulama için gerekli anahtarı ayarlar.
-        // parseClaimsJws(): Token'ı ayrıştırır ve bir Jws<Claims> nesnesi döndürür.
-        // getBody(): Token'ın payload (Claims) kısmını alır.
-        // getSubject(): Payload'dan konuyu (username) alır.
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    public Optional<UserPrincipal> getPrincipalFromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (!selfContained || userId == null) {
+            return Optional.empty();
+        }
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        Collection<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return Optional.of(new UserPrincipal(userId, claims.getSubject(), null, authorities));
     }
 
     /**
-     * Verilen JWT'nin geçerliliğini doğrular.
-     * Token'ın süresinin dolup dolmadığını, bozuk olup olmadığını vb. kontrol eder.
-     * @param authToken Doğrulanacak JWT String'i.
-     * @return Token geçerliyse true, aksi takdirde false.
+     * Token bir sürüm claim'i taşıyorsa kullanıcının güncel token sürümüyle karşılaştırır.
+     * Sürüm claim'i olmayan (klasik) token'lar için true döner.
+     * @param claims Doğrulanmış token claim'leri.
+     * @return Token iptal edilmemişse true.
      */
-    public boolean validateToken(String authToken) {
-        try {
-            // Token'ı ayrıştırmaya çalışarak geçerliliğini kontrol eder.
-            // Herhangi bir hata durumunda ilgili catch bloğuna düşer.
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
+    public boolean hasCurrentTokenVersion(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (userId == null || tokenVersion == null) {
             return true;
+        }
+        return tokenVersionRegistry.isCurrent(userId, tokenVersion);
+    }
+
+    /**
+     * Verilen JWT'yi tek seferde ayrıştırır, imzasını ve süresini doğrular ve claim'leri döndürür.
+     * Filtre bu metodu kullanarak token'ı istek başına yalnızca bir kez ayrıştırır.
+     * @param token JWT String'i.
+     * @return Token geçerliyse claim'ler (konu/subject dahil), aksi takdirde boş Optional.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        long start = System.nanoTime();
+        Optional<Claims> claims = doParseClaims(token);
+        (claims.isPresent() ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    private Optional<Claims> doParseClaims(String token) {
+        try {
+            // parseClaimsJws(): İmzalı token zorunludur; imzasız (alg=none) token'lar reddedilir.
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (MalformedJwtException ex) {
             // Güvenlik: Geçersiz biçimli JWT. Saldırı girişimi veya hatalı token üretimi olabilir.
             logger.error("Invalid JWT token: {}", ex.getMessage());
@@ -102,11 +177,36 @@ public class JwtTokenProvider {
         } catch (UnsupportedJwtException ex) {
             // Güvenlik: Desteklenmeyen JWT. Farklı bir format veya algoritma kullanılmış olabilir.
             logger.error("Unsupported JWT token: {}", ex.getMessage());
+        } catch (JwtException ex) {
+            // Güvenlik: İmza doğrulanamadı vb. Token değiştirilmiş veya farklı bir anahtarla imzalanmış olabilir.
+            logger.error("JWT verification failed: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             // Güvenlik: JWT claimleri boş veya geçersiz.
             logger.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        // Token geçerli değilse false döner.
-        return false;
+        // Token geçerli değilse boş döner.
+        return Optional.empty();
+    }
+
+    /**
+     * Verilen JWT'den kullanıcının adını (subject) çıkarır.
+     * @param token JWT String'i.
+     * @return Token'ın konusu olan kullanıcı adı.
+     * @throws JwtException Token ayrıştırma veya doğrulama sırasında bir hata oluşursa.
+     */
+    public String getUsernameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    /**
+     * Verilen JWT'nin geçerliliğini doğrular.
+     * Token'ın süresinin dolup dolmadığını, bozuk olup olmadığını vb. kontrol eder.
+     * @param authToken Doğrulanacak JWT String'i.
+     * @return Token geçerliyse true, aksi takdirde false.
+     */
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken).isPresent();
     }
-}
+}
\ No newline at end of file
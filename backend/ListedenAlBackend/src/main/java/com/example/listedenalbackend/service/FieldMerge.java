@@ -0,0 +1,46 @@
+package com.example.listedenalbackend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Eski bir sürüme dayanan güncelleme istekleri için üç yönlü alan birleştirme.
+ * Her alan için istemcinin okuduğu değer (original), istediği değer (requested) ve sunucudaki güncel değer (current) karşılaştırılır:
+ * istemcinin değiştirmediği alanlar sunucudaki değeri korur, iki tarafın farklı değerlere değiştirdiği alanlar çakışma sayılır.
+ */
+final class FieldMerge {
+
+    private final boolean stale;
+    private final List<String> conflicts = new ArrayList<>();
+
+    /**
+     * @param stale İstemcinin okuduğu sürüm güncel değilse true; false ise gönderilen tüm alanlar doğrudan uygulanır.
+     */
+    FieldMerge(boolean stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * @return Uygulanacak değer; alan gönderilmediyse veya istemci bu alanı değiştirmediyse null (mevcut değer korunur).
+     */
+    <T> T resolve(String field, T requested, T original, T current) {
+        if (requested == null) {
+            return null;
+        }
+        if (!stale) {
+            return requested;
+        }
+        if (Objects.equals(requested, original)) {
+            return null;
+        }
+        if (!Objects.equals(current, original) && !Objects.equals(current, requested)) {
+            conflicts.add(field);
+        }
+        return requested;
+    }
+
+    List<String> getConflicts() {
+        return conflicts;
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.listedenalbackend.service;
 
+import com.example.listedenalbackend.dto.InvitationView;
 import com.example.listedenalbackend.model.Invitation;
 import com.example.listedenalbackend.model.Invitation.InvitationStatus;
 import com.example.listedenalbackend.model.ListShare;
 import com.example.listedenalbackend.model.ShoppingList;
 import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.realtime.ListChangeEvent;
 import com.example.listedenalbackend.repository.InvitationRepository;
-import com.example.listedenalbackend.repository.ListShareRepository;
 import com.example.listedenalbackend.repository.ShoppingListRepository;
 import com.example.listedenalbackend.repository.UserRepository;
+import com.example.listedenalbackend.repository.projection.InvitationAcceptRow;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,22 +24,26 @@ import java.util.Optional;
 import java.util.UUID; // Davetiye kodu için
 
 @Service
+@Timed(value = "app.service", description = "Service method execution time")
 public class InvitationService {
 
     private final InvitationRepository invitationRepository;
     private final ShoppingListRepository shoppingListRepository;
     private final UserRepository userRepository;
-    private final ListShareRepository listShareRepository;
+    private final ListPermissionService listPermissionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public InvitationService(InvitationRepository invitationRepository,
                              ShoppingListRepository shoppingListRepository,
                              UserRepository userRepository,
-                             ListShareRepository listShareRepository) {
+                             ListPermissionService listPermissionService,
+                             ApplicationEventPublisher eventPublisher) {
         this.invitationRepository = invitationRepository;
         this.shoppingListRepository = shoppingListRepository;
         this.userRepository = userRepository;
-        this.listShareRepository = listShareRepository;
+        this.listPermissionService = listPermissionService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Invitation> getAllInvitations() {
@@ -49,15 +58,14 @@ public class InvitationService {
         return invitationRepository.findByInvitationCode(code);
     }
 
-    public List<Invitation> getPendingInvitationsForUser(Long recipientUserId) {
-        User recipient = userRepository.findById(recipientUserId)
-                .orElseThrow(() -> new IllegalArgumentException("Recipient user not found with id: " + recipientUserId));
-        return invitationRepository.findByRecipientUserAndStatus(recipient, InvitationStatus.PENDING);
+    public List<InvitationView> getPendingInvitationsForUser(Long recipientUserId) {
+        // Süresi geçmiş ama henüz süpürülmemiş davetiyeler listelenmez
+        return invitationRepository.findViewsByRecipientUserIdAndStatus(recipientUserId, InvitationStatus.PENDING, LocalDateTime.now());
     }
 
     // Kullanıcıya e-posta ile davetiye gönderme (e-posta gönderme mantığı burada değil)
     @Transactional
-    public Invitation createInvitation(Long shoppingListId, String recipientEmail, Long senderId, ListShare.PermissionLevel permissionLevel) {
+    public InvitationView createInvitation(Long shoppingListId, String recipientEmail, Long senderId, ListShare.PermissionLevel permissionLevel) {
         ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
                 .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
 
@@ -65,24 +73,25 @@ public class InvitationService {
                 .orElseThrow(() -> new IllegalArgumentException("Sender user not found with id: " + senderId));
 
         // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan davetiye gönderebilir
-        if (!hasAdminPermission(shoppingList, senderId)) {
+        if (!listPermissionService.canAdmin(shoppingListId, senderId)) {
             throw new SecurityException("User does not have permission to send invitations for this shopping list.");
         }
 
         // Eğer alıcı zaten kayıtlı bir kullanıcı ise
-        Optional<User> recipientUserOptional = userRepository.findByEmail(recipientEmail);
+        Optional<User> recipientUserOptional = userRepository.findByEmailIgnoreCase(recipientEmail);
         if (recipientUserOptional.isPresent()) {
             User recipientUser = recipientUserOptional.get();
             // Zaten listeye erişimi varsa davetiye gönderme
-            if (shoppingList.getOwner().getId().equals(recipientUser.getId()) ||
-                    listShareRepository.findByShoppingListAndSharedUser(shoppingList, recipientUser).isPresent()) {
+            if (listPermissionService.getPermissionLevel(shoppingListId, recipientUser.getId()).isPresent()) {
                 throw new IllegalArgumentException("User " + recipientEmail + " already has access to this list.");
             }
         }
 
-        // Aynı e-postaya aynı liste için bekleyen davetiye var mı kontrol et
-        if (invitationRepository.findByRecipientEmailAndStatus(recipientEmail, InvitationStatus.PENDING).stream()
-                .anyMatch(inv -> inv.getShoppingList().getId().equals(shoppingListId))) {
+        // Aynı e-postaya aynı liste için bekleyen davetiye var mı kontrol et (tek indeksli sorgu).
+        // Süresi geçmiş bekleyen davetiye önce kapatılır; yoksa yeni davetiye benzersiz indekse takılır.
+        invitationRepository.expireOverdueForListAndEmail(shoppingListId, recipientEmail, LocalDateTime.now(),
+                InvitationStatus.PENDING, InvitationStatus.EXPIRED);
+        if (invitationRepository.existsByShoppingListIdAndRecipientEmailIgnoreCaseAndStatus(shoppingListId, recipientEmail, InvitationStatus.PENDING)) {
             throw new IllegalArgumentException("Pending invitation already exists for this email and list.");
         }
 
@@ -97,57 +106,59 @@ public class InvitationService {
         invitation.setSentAt(LocalDateTime.now());
         invitation.setExpiresAt(LocalDateTime.now().plusDays(7)); // 7 gün sonra sona ersin
 
-        return invitationRepository.save(invitation);
+        try {
+            // Eşzamanlı iki gönderim kontrolü birlikte geçebilir; ikincisi (liste, lower(e-posta)) kısmi benzersiz indeksine takılır
+            return InvitationView.from(invitationRepository.saveAndFlush(invitation));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Pending invitation already exists for this email and list.", e);
+        }
     }
 
+    /**
+     * Davetiyeyi kabul eder ve kullanıcıya EDITOR paylaşımı verir. Durum geçişi, liste sürümü ve paylaşım tek bir
+     * koşullu SQL ifadesiyle yazılır; aynı kod için eşzamanlı kabullerden yalnızca biri başarılı olur.
+     * Kullanıcının listeye zaten erişimi varsa davetiye yine kabul edilir, yeni paylaşım oluşturulmaz.
+     * @throws IllegalArgumentException Kod geçersizse, davetiye PENDING değilse veya süresi geçmişse.
+     * @throws SecurityException Davetiye kullanıcının e-posta adresine gönderilmemişse.
+     */
     @Transactional
-    public Invitation acceptInvitation(String invitationCode, Long acceptingUserId) {
-        Invitation invitation = invitationRepository.findByInvitationCode(invitationCode)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired invitation code."));
+    public InvitationView acceptInvitation(String invitationCode, Long acceptingUserId) {
+        InvitationAcceptRow accepted = invitationRepository.acceptPending(invitationCode, acceptingUserId, LocalDateTime.now())
+                .orElseThrow(() -> notAccepted(invitationCode, acceptingUserId));
+
+        Long shoppingListId = accepted.getShoppingListId();
+        listPermissionService.evict(shoppingListId);
+        if (accepted.getShareId() != null) {
+            eventPublisher.publishEvent(ListChangeEvent.share(shoppingListId, ListChangeEvent.Action.CREATED, accepted.getShareId()));
+        }
+        return InvitationView.from(accepted);
+    }
 
-        if (invitation.getStatus() != InvitationStatus.PENDING) {
-            throw new IllegalArgumentException("Invitation is not in PENDING status.");
+    // Kabul ifadesi satır döndürmediğinde nedenini bulur (yalnızca hata yolunda çalışır)
+    private RuntimeException notAccepted(String invitationCode, Long acceptingUserId) {
+        Optional<Invitation> invitation = invitationRepository.findByInvitationCode(invitationCode);
+        if (invitation.isEmpty()) {
+            return new IllegalArgumentException("Invalid or expired invitation code.");
         }
-        if (invitation.getExpiresAt() != null && invitation.getExpiresAt().isBefore(LocalDateTime.now())) {
-            invitation.setStatus(InvitationStatus.EXPIRED);
-            invitationRepository.save(invitation);
-            throw new IllegalArgumentException("Invitation has expired.");
+        if (invitation.get().getStatus() != InvitationStatus.PENDING) {
+            return new IllegalArgumentException("Invitation is not in PENDING status.");
         }
-
-        User acceptingUser = userRepository.findById(acceptingUserId)
-                .orElseThrow(() -> new IllegalArgumentException("Accepting user not found with id: " + acceptingUserId));
-
-        // Davetiyedeki e-posta ile kabul eden kullanıcının e-postası eşleşiyor mu kontrol et
-        if (!invitation.getRecipientEmail().equalsIgnoreCase(acceptingUser.getEmail())) {
-            throw new SecurityException("Invitation is not intended for this user's email address.");
+        if (invitation.get().getExpiresAt() != null && !invitation.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+            return new IllegalArgumentException("Invitation has expired.");
         }
-
-        // Zaten listeye erişimi varsa tekrar ekleme
-        if (invitation.getShoppingList().getOwner().getId().equals(acceptingUser.getId()) ||
-                listShareRepository.findByShoppingListAndSharedUser(invitation.getShoppingList(), acceptingUser).isPresent()) {
-            invitation.setStatus(InvitationStatus.REJECTED); // Ya da 'ALREADY_ACCEPTED' gibi bir durum ekleyebiliriz
-            invitationRepository.save(invitation);
-            throw new IllegalArgumentException("User " + acceptingUser.getEmail() + " already has access to this list.");
+        Optional<User> acceptingUser = userRepository.findById(acceptingUserId);
+        if (acceptingUser.isEmpty()) {
+            return new IllegalArgumentException("Accepting user not found with id: " + acceptingUserId);
         }
-
-
-        // ListShare kaydı oluştur
-        ListShare listShare = new ListShare();
-        listShare.setShoppingList(invitation.getShoppingList());
-        listShare.setSharedUser(acceptingUser);
-        listShare.setPermissionLevel(ListShare.PermissionLevel.EDITOR); // Davetiye ile varsayılan olarak EDITOR yetkisi veriyoruz.
-        // İstenirse davetiye oluştururken bu seviye belirlenebilir.
-        listShareRepository.save(listShare);
-
-        invitation.setStatus(InvitationStatus.ACCEPTED);
-        invitation.setAcceptedAt(LocalDateTime.now());
-        invitation.setRecipientUser(acceptingUser); // Davetiye kabul edildiğinde recipientUser'ı ayarla
-
-        return invitationRepository.save(invitation);
+        if (!invitation.get().getRecipientEmail().equalsIgnoreCase(acceptingUser.get().getEmail())) {
+            return new SecurityException("Invitation is not intended for this user's email address.");
+        }
+        // Kontrol ile bu okuma arasında davetiye başka bir istekle kabul edilmiş olabilir
+        return new IllegalArgumentException("Invitation is not in PENDING status.");
     }
 
     @Transactional
-    public Invitation rejectInvitation(String invitationCode, Long rejectingUserId) {
+    public InvitationView rejectInvitation(String invitationCode, Long rejectingUserId) {
         Invitation invitation = invitationRepository.findByInvitationCode(invitationCode)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid invitation code."));
 
@@ -163,7 +174,7 @@ public class InvitationService {
         }
 
         invitation.setStatus(InvitationStatus.REJECTED);
-        return invitationRepository.save(invitation);
+        return InvitationView.from(invitationRepository.save(invitation));
     }
 
     @Transactional
@@ -173,20 +184,10 @@ public class InvitationService {
 
         // Yetki kontrolü: Davetiyeyi gönderen veya liste sahibi silebilir
         if (!invitation.getSender().getId().equals(currentUserId) &&
-                !hasAdminPermission(invitation.getShoppingList(), currentUserId)) {
+                !listPermissionService.canAdmin(invitation.getShoppingList().getId(), currentUserId)) {
             throw new SecurityException("User does not have permission to delete this invitation.");
         }
 
         invitationRepository.deleteById(id);
     }
-
-    // Yardımcı metot: Kullanıcının belirli bir liste üzerinde ADMIN yetkisi var mı?
-    private boolean hasAdminPermission(ShoppingList shoppingList, Long userId) {
-        if (shoppingList.getOwner().getId().equals(userId)) {
-            return true;
-        }
-        return listShareRepository.findByShoppingListAndSharedUser(shoppingList, userRepository.findById(userId).orElse(null))
-                .map(share -> share.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                .orElse(false);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.listedenalbackend.service;
+
+import com.example.listedenalbackend.repository.InvitationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Davetiye tablosunun bakım işi: süresi geçmiş PENDING davetiyeleri EXPIRED yapar ve saklama süresini aşmış
+ * kapanmış (ACCEPTED/REJECTED/EXPIRED) davetiyeleri siler.
+ * Her parça ayrı ve kısa bir transaction'da, FOR UPDATE SKIP LOCKED ile seçilen en fazla batchSize satır üzerinde çalışır;
+ * böylece birden çok sunucuda aynı anda çalışsa bile aynı satırlar için beklemez ve çift iş yapmaz.
+ */
+@Component
+public class InvitationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvitationSweeper.class);
+
+    private final InvitationRepository invitationRepository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong purgedCount = new AtomicLong();
+    private final AtomicLong runCount = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    public InvitationSweeper(InvitationRepository invitationRepository,
+                             @Value("${app.invitations.sweep-batch-size:500}") int batchSize,
+                             @Value("${app.invitations.sweep-max-batches:20}") int maxBatchesPerRun,
+                             @Value("${app.invitations.retention-days:30}") long retentionDays) {
+        this.invitationRepository = invitationRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${app.invitations.sweep-interval-ms:60000}",
+            initialDelayString = "${app.invitations.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int expired = runInChunks(() -> invitationRepository.expireOverdue(now, batchSize));
+            int purged = runInChunks(() -> invitationRepository.purgeClosedSentBefore(now.minus(retention), batchSize));
+            expiredCount.addAndGet(expired);
+            purgedCount.addAndGet(purged);
+            if (expired > 0 || purged > 0) {
+                logger.info("Invitation sweep: {} expired, {} purged", expired, purged);
+            }
+        } catch (RuntimeException e) {
+            // Bir sonraki çalışmada kalan satırlar tekrar denenir
+            logger.warn("Invitation sweep failed: {}", e.getMessage(), e);
+        } finally {
+            runCount.incrementAndGet();
+            lastRunAt = now;
+        }
+    }
+
+    // Parça boyutundan az satır dönene kadar veya çalışma başına parça sınırına ulaşılana kadar tekrarlar
+    private int runInChunks(IntSupplier chunk) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int affected = chunk.getAsInt();
+            total += affected;
+            if (affected < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getPurgedCount() {
+        return purgedCount.get();
+    }
+
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.listedenalbackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset sayfalamada kullanılan opak imleç: son döndürülen kaydın sıralama anahtarı ve ID'si.
+ * İstemciye base64url ("sortKey|id") olarak verilir; içeriği istemci için anlamlı değildir.
+ */
+public record KeysetCursor(String sortKey, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static String encode(Object sortKey, Long id) {
+        String raw = (sortKey == null ? "" : sortKey.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException İmleç çözülemezse (GlobalExceptionHandler yakalar).
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            String sortKey = raw.substring(0, separatorIndex);
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new KeysetCursor(sortKey.isEmpty() ? null : sortKey, id);
+        } catch (IllegalArgumentException e) { // NumberFormatException dahil
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
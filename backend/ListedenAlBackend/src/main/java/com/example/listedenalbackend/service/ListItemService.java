@@ -1,38 +1,72 @@
 package com.example.listedenalbackend.service;
 
+import com.example.listedenalbackend.dto.CursorPage;
+import com.example.listedenalbackend.dto.ListItemOperation;
+import com.example.listedenalbackend.dto.ListItemOperationResult;
+import com.example.listedenalbackend.dto.ListItemUpdateRequest;
+import com.example.listedenalbackend.dto.ListItemView;
+import com.example.listedenalbackend.dto.VersionedResult;
+import com.example.listedenalbackend.exception.ConflictException;
 import com.example.listedenalbackend.model.ListItem;
 import com.example.listedenalbackend.model.ShoppingList;
-import com.example.listedenalbackend.model.User;
-import com.example.listedenalbackend.model.ListShare;
+import com.example.listedenalbackend.model.Tombstone;
+import com.example.listedenalbackend.model.ListShare.PermissionLevel;
+import com.example.listedenalbackend.realtime.ListChangeEvent;
+import com.example.listedenalbackend.repository.ListItemQuery;
 import com.example.listedenalbackend.repository.ListItemRepository;
 import com.example.listedenalbackend.repository.ShoppingListRepository;
+import com.example.listedenalbackend.repository.projection.ListItemRow;
+import com.example.listedenalbackend.repository.projection.ListItemUpsertRow;
 import com.example.listedenalbackend.repository.UserRepository;
-import com.example.listedenalbackend.repository.ListShareRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "app.service", description = "Service method execution time")
 public class ListItemService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final ListItemRepository listItemRepository;
     private final ShoppingListRepository shoppingListRepository;
     private final UserRepository userRepository;
-    private final ListShareRepository listShareRepository;
+    private final ListPermissionService listPermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
 
     @Autowired
     public ListItemService(ListItemRepository listItemRepository,
                            ShoppingListRepository shoppingListRepository,
                            UserRepository userRepository,
-                           ListShareRepository listShareRepository) {
+                           ListPermissionService listPermissionService,
+                           ApplicationEventPublisher eventPublisher,
+                           SyncService syncService) {
         this.listItemRepository = listItemRepository;
         this.shoppingListRepository = shoppingListRepository;
         this.userRepository = userRepository;
-        this.listShareRepository = listShareRepository;
+        this.listPermissionService = listPermissionService;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
     }
 
     public List<ListItem> getAllListItems() {
@@ -43,111 +77,496 @@ public class ListItemService {
         return listItemRepository.findById(id);
     }
 
-    public List<ListItem> getItemsByShoppingList(Long shoppingListId, Long currentUserId) {
-        ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
-                .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
+    /**
+     * Listeye ait tek bir ürünü, kullanıcının görüntüleme yetkisini kontrol ederek getirir.
+     * @throws IllegalArgumentException Ürün bulunamazsa veya listeye ait değilse.
+     * @throws SecurityException Listeyi görüntüleme yetkisi yoksa.
+     */
+    public ListItemView getListItem(Long shoppingListId, Long itemId, Long currentUserId) {
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.VIEWER,
+                "User does not have permission to view this shopping list.");
+
+        return listItemRepository.findViewByIdAndShoppingListId(itemId, shoppingListId)
+                .orElseThrow(() -> new IllegalArgumentException("List item not found or does not belong to shopping list " + shoppingListId));
+    }
+
+    /**
+     * Listedeki ürünleri filtreleyerek keyset sayfalama ile getirir.
+     * @param purchased Satın alınma filtresi; null ise uygulanmaz.
+     * @param priority Öncelik filtresi; null ise uygulanmaz.
+     * @param namePrefix Ürün adı öneki (büyük/küçük harf duyarsız); boşsa uygulanmaz.
+     * @param sort "createdAt" (varsayılan) veya "priority".
+     * @param cursor Önceki sayfanın nextCursor değeri; ilk sayfa için null. Aynı sıralama ile kullanılmalıdır.
+     * @param size Sayfa boyutu (1..MAX_PAGE_SIZE aralığına çekilir).
+     * @throws IllegalArgumentException Liste bulunamazsa, sıralama veya imleç geçersizse.
+     * @throws SecurityException Listeyi görüntüleme yetkisi yoksa.
+     */
+    public CursorPage<ListItemView> getItemsByShoppingList(Long shoppingListId, Boolean purchased, Integer priority, String namePrefix,
+                                                           String sort, String cursor, int size, Long currentUserId) {
+        // Yetki kontrolü: Kullanıcı listeye erişebilir mi? (Liste yoksa IllegalArgumentException)
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.VIEWER,
+                "User does not have permission to view this shopping list.");
 
-        // Yetki kontrolü: Kullanıcı listeye erişebilir mi?
-        if (!hasViewPermission(shoppingList, currentUserId)) {
-            throw new SecurityException("User does not have permission to view this shopping list.");
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ListItemQuery query = new ListItemQuery();
+        query.setShoppingListId(shoppingListId);
+        query.setPurchased(purchased);
+        query.setPriority(priority);
+        query.setNamePrefix(namePrefix);
+        query.setSort(parseSort(sort));
+        // Bir fazla kayıt çekilerek sonraki sayfanın olup olmadığı ayrıca sayım sorgusu yapmadan anlaşılır
+        query.setLimit(pageSize + 1);
+        if (cursor != null && !cursor.isBlank()) {
+            applyCursor(query, cursor);
         }
 
-        return listItemRepository.findByShoppingList(shoppingList);
+        List<ListItemView> items = listItemRepository.findViews(query);
+        boolean hasMore = items.size() > pageSize;
+        List<ListItemView> page = hasMore ? items.subList(0, pageSize) : items;
+        String nextCursor = null;
+        if (hasMore) {
+            ListItemView last = page.get(page.size() - 1);
+            Object sortKey = query.getSort() == ListItemQuery.SortField.PRIORITY ? last.getPriority() : last.getCreatedAt();
+            nextCursor = KeysetCursor.encode(sortKey, last.getId());
+        }
+        return new CursorPage<>(page, nextCursor, hasMore);
     }
 
-    @Transactional
-    public ListItem addListItem(Long shoppingListId, ListItem listItem, Long currentUserId) {
-        ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
-                .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
+    private ListItemQuery.SortField parseSort(String sort) {
+        if (sort == null || sort.isBlank() || sort.equals("createdAt")) {
+            return ListItemQuery.SortField.CREATED_AT;
+        }
+        if (sort.equals("priority")) {
+            return ListItemQuery.SortField.PRIORITY;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + sort + ". Use 'createdAt' or 'priority'.");
+    }
 
-        User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new IllegalArgumentException("Current user not found with id: " + currentUserId));
+    private void applyCursor(ListItemQuery query, String cursor) {
+        KeysetCursor keyset = KeysetCursor.decode(cursor);
+        try {
+            if (query.getSort() == ListItemQuery.SortField.PRIORITY) {
+                // Boş sıralama anahtarı, önceliği olmayan (null) son kaydı ifade eder
+                query.setAfterPriority(keyset.sortKey() == null ? null : Integer.valueOf(keyset.sortKey()));
+            } else {
+                if (keyset.sortKey() == null) {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+                }
+                query.setAfterCreatedAt(LocalDateTime.parse(keyset.sortKey()));
+            }
+        } catch (DateTimeParseException e) { // NumberFormatException bir IllegalArgumentException'dır
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        query.setAfterId(keyset.id());
+    }
 
-        // Yetki kontrolü: Kullanıcı liste üzerinde EDIT veya ADMIN yetkisine sahip mi?
-        if (!hasEditPermission(shoppingList, currentUserId)) {
-            throw new SecurityException("User does not have permission to add items to this shopping list.");
+    @Transactional
+    public ListItemView addListItem(Long shoppingListId, ListItem listItem, Long currentUserId) {
+        if (!StringUtils.hasText(listItem.getProductName()) || listItem.getQuantity() == null) {
+            throw new IllegalArgumentException("productName and quantity are required.");
         }
+        // Yetki kontrolü: Kullanıcı liste üzerinde EDIT veya ADMIN yetkisine sahip mi? (Liste yoksa IllegalArgumentException)
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to add items to this shopping list.");
 
+        // Liste varlığı yetki kontrolünde doğrulandı; sadece referans kullanılır
+        ShoppingList shoppingList = shoppingListRepository.getReferenceById(shoppingListId);
         listItem.setShoppingList(shoppingList);
-        listItem.setAddedBy(currentUser); // Öğeyi ekleyen kullanıcı
+        // Kullanıcı kimliği doğrulanmış principal'dan geldiği için tekrar sorgulamaya gerek yok; sadece referans kullanılır
+        listItem.setAddedBy(userRepository.getReferenceById(currentUserId)); // Öğeyi ekleyen kullanıcı
         listItem.setPurchasedBy(null); // Başlangıçta satın alınmadı
         listItem.setCreatedAt(LocalDateTime.now());
         listItem.setUpdatedAt(LocalDateTime.now());
         listItem.setPurchased(false); // Varsayılan olarak satın alınmadı
+        listItem.setVersion(null); // Sürüm Hibernate tarafından başlatılır
+        listItem.setMergeKey(resolveMergeKey(shoppingListId, null, listItem.getProductName(), listItem.getUnit(), false, null));
+        listItem.setChangeVersion(syncService.nextVersion(shoppingListId));
 
-        return listItemRepository.save(listItem);
+        ListItem savedItem = saveAndFlush(listItem);
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.CREATED, savedItem.getId()));
+        return ListItemView.from(savedItem);
     }
 
+    /**
+     * Birleştirerek ekleme sonucu: güncel ürün ve yeni bir ürün oluşturulup oluşturulmadığı.
+     */
+    public record MergeResult(ListItemView item, boolean created) {
+    }
+
+    /**
+     * Ürünü birleştirerek ekler: listede aynı ada ve birime sahip (Türkçe kurallarla büyük/küçük harf ve boşluk farkı gözetmeksizin)
+     * satın alınmamış bir ürün varsa miktarı artırılır, yoksa yeni ürün eklenir. Tek bir INSERT ... ON CONFLICT ifadesiyle yapılır.
+     * @throws IllegalArgumentException Liste bulunamazsa veya ürün adı/miktarı geçersizse.
+     * @throws SecurityException Ürün ekleme yetkisi yoksa.
+     */
     @Transactional
-    public ListItem updateListItem(Long id, ListItem updatedItemDetails, Long currentUserId) {
-        return listItemRepository.findById(id).map(existingItem -> {
+    public MergeResult mergeListItem(Long shoppingListId, ListItem listItem, Long currentUserId) {
+        if (!StringUtils.hasText(listItem.getProductName()) || listItem.getQuantity() == null || listItem.getQuantity() <= 0) {
+            throw new IllegalArgumentException("productName and a positive quantity are required.");
+        }
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to add items to this shopping list.");
+
+        long version = syncService.nextVersion(shoppingListId);
+        ListItemUpsertRow row = listItemRepository.upsertMergeable(shoppingListId, listItem.getProductName().trim(), listItem.getQuantity(),
+                listItem.getUnit(), listItem.getNotes(), currentUserId, listItem.getPriority(),
+                ProductNames.mergeKey(listItem.getProductName(), listItem.getUnit()), version, LocalDateTime.now());
+        boolean created = Boolean.TRUE.equals(row.getInserted());
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId,
+                created ? ListChangeEvent.Action.CREATED : ListChangeEvent.Action.UPDATED, row.getId()));
+        return new MergeResult(ListItemView.from(row), created);
+    }
+
+    /**
+     * Ürünü günceller. İstek eski bir ürün sürümüne dayanıyorsa, istemcinin değiştirdiği alanlar sunucudaki
+     * değişikliklerle çakışmadığı sürece birleştirilir; çakışma varsa güncel ürünle birlikte ConflictException fırlatılır.
+     * @return Güncellenmiş ürün ve bu güncellemenin ürettiği liste sürümü (ETag için).
+     * @throws IllegalArgumentException Ürün bu listede bulunamazsa.
+     * @throws SecurityException Düzenleme yetkisi yoksa.
+     * @throws ConflictException Eşzamanlı bir değişiklikle çakışma varsa (409).
+     */
+    @Transactional
+    public VersionedResult<ListItemView> updateListItem(Long shoppingListId, Long id, ListItemUpdateRequest request, Long currentUserId, Long expectedVersion) {
+        return listItemRepository.findByIdAndShoppingListId(id, shoppingListId).map(existingItem -> {
             // Yetki kontrolü: Kullanıcı liste üzerinde EDIT veya ADMIN yetkisine sahip mi?
-            if (!hasEditPermission(existingItem.getShoppingList(), currentUserId)) {
+            if (!listPermissionService.canEdit(existingItem.getShoppingList().getId(), currentUserId)) {
                 throw new SecurityException("User does not have permission to update this list item.");
             }
 
-            if (updatedItemDetails.getProductName() != null) {
-                existingItem.setProductName(updatedItemDetails.getProductName());
+            boolean stale = request.getVersion() != null && !request.getVersion().equals(existingItem.getVersion());
+            if (stale && request.getOriginal() == null) {
+                throw new ConflictException("ListItem " + id + " was modified by another user.", ListItemView.from(existingItem), List.of());
             }
-            if (updatedItemDetails.getQuantity() != null) {
-                existingItem.setQuantity(updatedItemDetails.getQuantity());
+            ListItemView original = request.getOriginal() != null ? request.getOriginal() : new ListItemView();
+            FieldMerge merge = new FieldMerge(stale);
+            ListItem details = new ListItem();
+            details.setProductName(merge.resolve("productName", request.getProductName(), original.getProductName(), existingItem.getProductName()));
+            details.setQuantity(merge.resolve("quantity", request.getQuantity(), original.getQuantity(), existingItem.getQuantity()));
+            details.setUnit(merge.resolve("unit", request.getUnit(), original.getUnit(), existingItem.getUnit()));
+            details.setNotes(merge.resolve("notes", request.getNotes(), original.getNotes(), existingItem.getNotes()));
+            details.setPriority(merge.resolve("priority", request.getPriority(), original.getPriority(), existingItem.getPriority()));
+            Boolean purchased = merge.resolve("purchased", request.getPurchased(), original.isPurchased(), existingItem.isPurchased());
+            if (!merge.getConflicts().isEmpty()) {
+                throw new ConflictException("ListItem " + id + " was modified by another user.", ListItemView.from(existingItem), merge.getConflicts());
             }
-            if (updatedItemDetails.getUnit() != null) {
-                existingItem.setUnit(updatedItemDetails.getUnit());
+
+            // Birleştirme anahtarı ve sürüm, entity değiştirilmeden önce alınır (sorgular öncesi gereksiz flush olmasın).
+            // If-Match verilmişse liste hâlâ istemcinin gördüğü sürümde olmalıdır.
+            String mergeKey = resolveMergeKey(shoppingListId, id,
+                    details.getProductName() != null ? details.getProductName() : existingItem.getProductName(),
+                    details.getUnit() != null ? details.getUnit() : existingItem.getUnit(),
+                    purchased != null ? purchased : existingItem.isPurchased(), existingItem.getMergeKey());
+            long listVersion = syncService.nextVersion(existingItem.getShoppingList().getId(), expectedVersion);
+            existingItem.setChangeVersion(listVersion);
+            applyDetails(existingItem, details);
+            if (purchased != null) {
+                applyPurchased(existingItem, purchased, currentUserId);
             }
-            if (updatedItemDetails.getNotes() != null) {
-                existingItem.setNotes(updatedItemDetails.getNotes());
+            existingItem.setMergeKey(mergeKey);
+            existingItem.setUpdatedAt(LocalDateTime.now());
+
+            // Flush, @Version artışını yanıta yansıtır; okuma ile yazma arasındaki eşzamanlı bir commit burada optimistic lock hatası verir
+            ListItem savedItem = saveAndFlush(existingItem);
+            eventPublisher.publishEvent(ListChangeEvent.item(savedItem.getShoppingList().getId(), ListChangeEvent.Action.UPDATED, savedItem.getId()));
+            return new VersionedResult<>(ListItemView.from(savedItem), listVersion);
+        }).orElseThrow(() -> new IllegalArgumentException("ListItem not found in this shopping list: " + id));
+    }
+
+    /**
+     * Bir listedeki ürünlere toplu ekleme/güncelleme/satın alma/silme işlemlerini tek transaction'da uygular.
+     * Yetki bir kez kontrol edilir, hedef ürünler tek IN sorgusuyla yüklenir ve değişiklikler JDBC batch ile yazılır.
+     * Bulunamayan veya geçersiz adımlar diğerlerini engellemez; her adımın sonucu ayrı döndürülür.
+     * @throws IllegalArgumentException Liste bulunamazsa veya işlem listesi boş/çok büyükse.
+     * @throws SecurityException Liste üzerinde düzenleme yetkisi yoksa.
+     */
+    @Transactional
+    public List<ListItemOperationResult> applyBatch(Long shoppingListId, List<ListItemOperation> operations, Long currentUserId) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation.");
+        }
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " operations.");
+        }
+
+        // Yetki kontrolü tüm adımlar için bir kez yapılır (Liste yoksa IllegalArgumentException)
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to modify items of this shopping list.");
+
+        Set<Long> targetIds = operations.stream()
+                .filter(operation -> operation != null && operation.getOp() != ListItemOperation.Type.ADD && operation.getItemId() != null)
+                .map(ListItemOperation::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, ListItem> targets = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            listItemRepository.findByShoppingListIdAndIdIn(shoppingListId, targetIds)
+                    .forEach(item -> targets.put(item.getId(), item));
+        }
+
+        // Anahtarlar yalnızca eklenir, serbest kalanlar bu istekte yeniden kullanılmaz: Hibernate eklemeleri güncelleme ve
+        // silmelerden önce yazdığından, aynı istekte bırakılan bir anahtarı almak benzersiz indeksi ihlal edebilir.
+        Set<String> claimedMergeKeys = new HashSet<>(listItemRepository.findUnpurchasedMergeKeys(shoppingListId));
+        ShoppingList shoppingList = shoppingListRepository.getReferenceById(shoppingListId);
+        // Tüm toplu işlem tek bir liste sürümü olarak kaydedilir
+        long version = syncService.nextVersion(shoppingListId);
+        LocalDateTime now = LocalDateTime.now();
+        List<ListItemOperationResult> results = new ArrayList<>(operations.size());
+        Map<Integer, ListItem> changedItems = new HashMap<>(); // Sonuç sırası -> değişen ürün
+        List<ListItem> newItems = new ArrayList<>();
+        List<ListItem> deletedItems = new ArrayList<>();
+
+        for (int index = 0; index < operations.size(); index++) {
+            ListItemOperation operation = operations.get(index);
+            ListItemOperation.Type type = operation == null ? null : operation.getOp();
+            Long itemId = operation == null ? null : operation.getItemId();
+
+            if (type == null) {
+                results.add(new ListItemOperationResult(index, null, itemId, ListItemOperationResult.Status.INVALID, "Operation type is required.", null));
+                continue;
+            }
+
+            if (type == ListItemOperation.Type.ADD) {
+                ListItem newItem = operation.getItem();
+                if (newItem == null || !StringUtils.hasText(newItem.getProductName()) || newItem.getQuantity() == null) {
+                    results.add(new ListItemOperationResult(index, type, null, ListItemOperationResult.Status.INVALID, "productName and quantity are required for ADD.", null));
+                    continue;
+                }
+                newItem.setId(null);
+                newItem.setVersion(null);
+                newItem.setShoppingList(shoppingList);
+                newItem.setAddedBy(userRepository.getReferenceById(currentUserId));
+                newItem.setPurchasedBy(null);
+                newItem.setPurchased(false);
+                newItem.setCreatedAt(now);
+                newItem.setUpdatedAt(now);
+                newItem.setMergeKey(null);
+                claimMergeKey(newItem, claimedMergeKeys);
+                newItem.setChangeVersion(version);
+                newItems.add(newItem);
+                changedItems.put(index, newItem);
+                results.add(new ListItemOperationResult(index, type, null, ListItemOperationResult.Status.OK, null, null));
+                continue;
             }
-            if (updatedItemDetails.getPriority() != null) {
-                existingItem.setPriority(updatedItemDetails.getPriority());
+
+            ListItem existingItem = itemId == null ? null : targets.get(itemId);
+            if (existingItem == null) {
+                results.add(new ListItemOperationResult(index, type, itemId, ListItemOperationResult.Status.NOT_FOUND, "ListItem not found in this shopping list.", null));
+                continue;
             }
-            // isPurchased'i buradan doğrudan güncelleyebiliriz veya ayrı bir metot olabilir
-            if (updatedItemDetails.isPurchased() != existingItem.isPurchased()) {
-                existingItem.setPurchased(updatedItemDetails.isPurchased());
-                if (updatedItemDetails.isPurchased()) {
-                    existingItem.setPurchasedBy(userRepository.findById(currentUserId).orElse(null));
-                } else {
-                    existingItem.setPurchasedBy(null); // Satın alma durumu geri alınırsa
+            if (type == ListItemOperation.Type.UPDATE && operation.getItem() == null) {
+                results.add(new ListItemOperationResult(index, type, itemId, ListItemOperationResult.Status.INVALID, "item is required for UPDATE.", null));
+                continue;
+            }
+            if (type == ListItemOperation.Type.UPDATE && operation.getItem().getVersion() != null
+                    && !operation.getItem().getVersion().equals(existingItem.getVersion())) {
+                results.add(new ListItemOperationResult(index, type, itemId, ListItemOperationResult.Status.CONFLICT,
+                        "ListItem was modified by another user.", ListItemView.from(existingItem)));
+                continue;
+            }
+
+            switch (type) {
+                case UPDATE -> applyDetails(existingItem, operation.getItem());
+                case PURCHASE -> applyPurchased(existingItem, true, currentUserId);
+                case UNPURCHASE -> applyPurchased(existingItem, false, currentUserId);
+                case DELETE -> {
+                    // Aynı istekte silinen ürüne sonraki adımlar NOT_FOUND alır
+                    targets.remove(itemId);
+                    deletedItems.add(existingItem);
                 }
+                default -> throw new IllegalStateException("Unhandled operation: " + type);
             }
-            existingItem.setUpdatedAt(LocalDateTime.now());
+            if (type != ListItemOperation.Type.DELETE) {
+                claimMergeKey(existingItem, claimedMergeKeys);
+                existingItem.setUpdatedAt(now);
+                existingItem.setChangeVersion(version);
+                changedItems.put(index, existingItem);
+            }
+            results.add(new ListItemOperationResult(index, type, itemId, ListItemOperationResult.Status.OK, null, null));
+        }
+
+        // Güncellemeler yönetilen (managed) entity'ler üzerinde dirty checking ile, eklemeler ve silmeler toplu olarak yazılır
+        listItemRepository.saveAll(newItems);
+        listItemRepository.deleteAll(deletedItems);
+        deletedItems.forEach(item -> syncService.recordDeletion(shoppingListId, Tombstone.EntityType.ITEM, item.getId(), version));
+        // Yanıttaki ürünlerin @Version değerleri güncel olsun diye değişiklikler (JDBC batch ile) burada yazılır
+        try {
+            listItemRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw mergeKeyConflict(shoppingListId, e);
+        }
 
-            return listItemRepository.save(existingItem);
-        }).orElseThrow(() -> new IllegalArgumentException("ListItem not found with id: " + id));
+        changedItems.forEach((index, item) -> {
+            ListItemOperationResult result = results.get(index);
+            result.setItemId(item.getId());
+            result.setItem(ListItemView.from(item));
+            ListChangeEvent.Action action = result.getOp() == ListItemOperation.Type.ADD
+                    ? ListChangeEvent.Action.CREATED : ListChangeEvent.Action.UPDATED;
+            eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, action, item.getId()));
+        });
+        deletedItems.forEach(item ->
+                eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.DELETED, item.getId())));
+        return results;
     }
 
-    @Transactional
-    public void deleteListItem(Long id, Long currentUserId) {
-        ListItem listItem = listItemRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("ListItem not found with id: " + id));
+    // Null olmayan alanları mevcut ürüne uygular (satın alınma durumu hariç)
+    private void applyDetails(ListItem existingItem, ListItem details) {
+        if (details.getProductName() != null) {
+            existingItem.setProductName(details.getProductName());
+        }
+        if (details.getQuantity() != null) {
+            existingItem.setQuantity(details.getQuantity());
+        }
+        if (details.getUnit() != null) {
+            existingItem.setUnit(details.getUnit());
+        }
+        if (details.getNotes() != null) {
+            existingItem.setNotes(details.getNotes());
+        }
+        if (details.getPriority() != null) {
+            existingItem.setPriority(details.getPriority());
+        }
+    }
 
-        // Yetki kontrolü: Kullanıcı liste üzerinde EDIT veya ADMIN yetkisine sahip mi?
-        if (!hasEditPermission(listItem.getShoppingList(), currentUserId)) {
-            throw new SecurityException("User does not have permission to delete this list item.");
+    /**
+     * Ürünün birleştirme anahtarını belirler: satın alınmamış ürün, listede aynı anahtar başka bir satın alınmamış üründe
+     * yoksa anahtarı alır; varsa (ör. birleştirmeden eklenmiş bir kopya) birleştirmeye katılmaz.
+     * @param itemId Güncellenen ürünün ID'si; yeni ürün için null.
+     */
+    private String resolveMergeKey(Long shoppingListId, Long itemId, String productName, String unit, boolean purchased, String currentKey) {
+        if (purchased) {
+            return null;
+        }
+        String mergeKey = ProductNames.mergeKey(productName, unit);
+        if (mergeKey.equals(currentKey)) {
+            return currentKey;
         }
+        return listItemRepository.existsUnpurchasedByMergeKey(shoppingListId, mergeKey, itemId) ? null : mergeKey;
+    }
 
-        listItemRepository.deleteById(id);
+    // Toplu işlemde anahtarı bellekteki kümeye göre belirler (adım başına sorgu yapılmaz)
+    private void claimMergeKey(ListItem item, Set<String> claimedMergeKeys) {
+        if (item.isPurchased()) {
+            item.setMergeKey(null);
+            return;
+        }
+        String mergeKey = ProductNames.mergeKey(item.getProductName(), item.getUnit());
+        if (!mergeKey.equals(item.getMergeKey())) {
+            item.setMergeKey(claimedMergeKeys.add(mergeKey) ? mergeKey : null);
+        }
+    }
+
+    // Aynı anahtarı eşzamanlı olarak alan başka bir yazma kısmi benzersiz indekse takılırsa istemci yeniden dener (409)
+    private ListItem saveAndFlush(ListItem item) {
+        try {
+            return listItemRepository.saveAndFlush(item);
+        } catch (DataIntegrityViolationException e) {
+            throw mergeKeyConflict(item.getShoppingList().getId(), e);
+        }
+    }
+
+    private OptimisticLockingFailureException mergeKeyConflict(Long shoppingListId, DataIntegrityViolationException e) {
+        return new OptimisticLockingFailureException("Items of shopping list " + shoppingListId + " were modified concurrently.", e);
     }
 
-    // Yardımcı metotlar for yetki kontrolü
-    private boolean hasViewPermission(ShoppingList shoppingList, Long userId) {
-        if (shoppingList.getOwner().getId().equals(userId)) {
-            return true; // Liste sahibi
+    private void applyPurchased(ListItem existingItem, boolean purchased, Long currentUserId) {
+        if (purchased == existingItem.isPurchased()) {
+            return;
         }
-        return listShareRepository.findByShoppingListAndSharedUser(shoppingList, userRepository.findById(userId).orElse(null))
-                .map(share -> share.getPermissionLevel() == ListShare.PermissionLevel.VIEWER ||
-                        share.getPermissionLevel() == ListShare.PermissionLevel.EDITOR ||
-                        share.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                .orElse(false);
+        existingItem.setPurchased(purchased);
+        if (purchased) {
+            existingItem.setPurchasedBy(userRepository.getReferenceById(currentUserId));
+            existingItem.setMergeKey(null); // Satın alınan ürün artık birleştirilmez
+        } else {
+            existingItem.setPurchasedBy(null); // Satın alma durumu geri alınırsa
+        }
+    }
+
+    /**
+     * Ürünü satın alındı/alınmadı olarak işaretler. Ürün yüklenmeden tek bir koşullu UPDATE ile yapılır;
+     * ürün zaten istenen durumdaysa (ör. başka bir kullanıcı önce satın aldıysa) güncel ürünle ConflictException fırlatılır.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa.
+     * @throws SecurityException Düzenleme yetkisi yoksa.
+     * @throws ConflictException Ürün zaten istenen durumdaysa (409).
+     */
+    @Transactional
+    public ListItemView setPurchased(Long shoppingListId, Long itemId, boolean purchased, Long currentUserId) {
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to update items of this shopping list.");
+
+        // Koşul tutmazsa exception ile transaction geri alınır; liste sürümü de artmamış olur
+        long version = syncService.nextVersion(shoppingListId);
+        Optional<ListItemRow> updated;
+        try {
+            updated = listItemRepository.updatePurchasedIfChanged(itemId, shoppingListId, purchased, currentUserId, version, LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            // Aynı anahtarlı başka bir ürün eşzamanlı olarak satın alınmadığa döndü veya eklendi
+            throw mergeKeyConflict(shoppingListId, e);
+        }
+        ListItemView item = updated
+                .map(ListItemView::from)
+                .orElseThrow(() -> notUpdated(shoppingListId, itemId, current -> new ConflictException(
+                        purchased ? "ListItem is already purchased." : "ListItem is not purchased.", current, List.of("purchased"))));
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.UPDATED, itemId));
+        return item;
+    }
+
+    /**
+     * Ürün miktarını verilen fark kadar değiştirir (ör. +1, -0.5). Artırma veritabanında yapıldığından eşzamanlı değişiklikler kaybolmaz.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa ya da miktar pozitif kalmayacaksa.
+     * @throws SecurityException Düzenleme yetkisi yoksa.
+     */
+    @Transactional
+    public ListItemView adjustQuantity(Long shoppingListId, Long itemId, double delta, Long currentUserId) {
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to update items of this shopping list.");
+
+        long version = syncService.nextVersion(shoppingListId);
+        ListItemView item = listItemRepository.addQuantity(itemId, shoppingListId, delta, version, LocalDateTime.now())
+                .map(ListItemView::from)
+                .orElseThrow(() -> notUpdated(shoppingListId, itemId, current -> new IllegalArgumentException(
+                        "Quantity of ListItem " + itemId + " must remain positive.")));
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.UPDATED, itemId));
+        return item;
+    }
+
+    /**
+     * Ürün önceliğini tek bir UPDATE ile değiştirir.
+     * @throws IllegalArgumentException Liste veya ürün bulunamazsa.
+     * @throws SecurityException Düzenleme yetkisi yoksa.
+     */
+    @Transactional
+    public ListItemView updatePriority(Long shoppingListId, Long itemId, int priority, Long currentUserId) {
+        listPermissionService.checkPermission(shoppingListId, currentUserId, PermissionLevel.EDITOR,
+                "User does not have permission to update items of this shopping list.");
+
+        long version = syncService.nextVersion(shoppingListId);
+        ListItemView item = listItemRepository.updatePriority(itemId, shoppingListId, priority, version, LocalDateTime.now())
+                .map(ListItemView::from)
+                .orElseThrow(() -> notUpdated(shoppingListId, itemId, current -> new IllegalStateException(
+                        "ListItem " + itemId + " was not updated.")));
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.UPDATED, itemId));
+        return item;
     }
 
-    private boolean hasEditPermission(ShoppingList shoppingList, Long userId) {
-        if (shoppingList.getOwner().getId().equals(userId)) {
-            return true; // Liste sahibi (her zaman tam yetkiye sahip)
+    // Koşullu güncelleme satır döndürmediğinde: ürün yoksa IllegalArgumentException, varsa koşul hatası (güncel ürünle)
+    private RuntimeException notUpdated(Long shoppingListId, Long itemId, Function<ListItemView, RuntimeException> conditionFailure) {
+        return listItemRepository.findViewByIdAndShoppingListId(itemId, shoppingListId)
+                .map(conditionFailure)
+                .orElseGet(() -> new IllegalArgumentException("ListItem not found in this shopping list: " + itemId));
+    }
+
+    @Transactional
+    public void deleteListItem(Long shoppingListId, Long id, Long currentUserId, Long expectedVersion) {
+        ListItem listItem = listItemRepository.findByIdAndShoppingListId(id, shoppingListId)
+                .orElseThrow(() -> new IllegalArgumentException("ListItem not found in this shopping list: " + id));
+
+        // Yetki kontrolü: Kullanıcı liste üzerinde EDIT veya ADMIN yetkisine sahip mi?
+        if (!listPermissionService.canEdit(shoppingListId, currentUserId)) {
+            throw new SecurityException("User does not have permission to delete this list item.");
         }
-        return listShareRepository.findByShoppingListAndSharedUser(shoppingList, userRepository.findById(userId).orElse(null))
-                .map(share -> share.getPermissionLevel() == ListShare.PermissionLevel.EDITOR ||
-                        share.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                .orElse(false);
+
+        long version = syncService.nextVersion(shoppingListId, expectedVersion);
+        listItemRepository.deleteById(id);
+        syncService.recordDeletion(shoppingListId, Tombstone.EntityType.ITEM, id, version);
+        eventPublisher.publishEvent(ListChangeEvent.item(shoppingListId, ListChangeEvent.Action.DELETED, id));
     }
 }
\ No newline at end of file
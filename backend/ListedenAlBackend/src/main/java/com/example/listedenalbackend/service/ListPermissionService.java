@@ -0,0 +1,131 @@
+package com.example.listedenalbackend.service;
+
+import com.example.listedenalbackend.model.ListShare.PermissionLevel;
+import com.example.listedenalbackend.repository.ListShareRepository;
+import com.example.listedenalbackend.repository.projection.ListAccessView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alışveriş listeleri için merkezi yetki kontrolü.
+ * "X kullanıcısının Y listesindeki yetkisi" sorusunu tek bir projeksiyon sorgusuyla yanıtlar ve sonucu liste başına
+ * bir ACL önbelleğinde tutar. ListShare oluşturma/güncelleme/silme ve davetiye kabulünde ilgili listenin kaydı silinmelidir.
+ * Önbellek düğüm (node) başınadır; diğer düğümlerdeki değişiklikler en geç TTL süresi sonunda görünür olur.
+ */
+@Service
+public class ListPermissionService {
+
+    // Liste sahibi her zaman ADMIN kabul edilir; paylaşım kaydı olmayan kullanıcının seviyesi null'dır.
+    private record Access(PermissionLevel level) {
+    }
+
+    private final ListShareRepository listShareRepository;
+    private final Cache<Long, Map<Long, Access>> aclCache;
+
+    @Autowired
+    public ListPermissionService(ListShareRepository listShareRepository,
+                                 @Value("${app.acl-cache.max-lists:50000}") long maxLists,
+                                 @Value("${app.acl-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.listShareRepository = listShareRepository;
+        this.aclCache = Caffeine.newBuilder()
+                .maximumSize(maxLists)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Kullanıcının liste üzerindeki yetki seviyesini döndürür.
+     * @return Yetki seviyesi; liste yoksa veya kullanıcının erişimi yoksa boş Optional.
+     */
+    public Optional<PermissionLevel> getPermissionLevel(Long shoppingListId, Long userId) {
+        Access access = resolve(shoppingListId, userId);
+        return access == null ? Optional.empty() : Optional.ofNullable(access.level());
+    }
+
+    public boolean canView(Long shoppingListId, Long userId) {
+        return hasAtLeast(resolve(shoppingListId, userId), PermissionLevel.VIEWER);
+    }
+
+    public boolean canEdit(Long shoppingListId, Long userId) {
+        return hasAtLeast(resolve(shoppingListId, userId), PermissionLevel.EDITOR);
+    }
+
+    public boolean canAdmin(Long shoppingListId, Long userId) {
+        return hasAtLeast(resolve(shoppingListId, userId), PermissionLevel.ADMIN);
+    }
+
+    /**
+     * Kullanıcının liste üzerinde en az verilen yetki seviyesine sahip olduğunu doğrular.
+     * @param deniedMessage Yetki yetersizse fırlatılacak SecurityException mesajı.
+     * @throws IllegalArgumentException Liste bulunamazsa (GlobalExceptionHandler yakalar).
+     * @throws SecurityException Yetki yetersizse (GlobalExceptionHandler yakalar).
+     */
+    public void checkPermission(Long shoppingListId, Long userId, PermissionLevel required, String deniedMessage) {
+        Access access = resolve(shoppingListId, userId);
+        if (access == null) {
+            throw new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId);
+        }
+        if (!hasAtLeast(access, required)) {
+            throw new SecurityException(deniedMessage);
+        }
+    }
+
+    /**
+     * Listenin ACL önbellek kaydını siler. Aktif bir transaction varsa commit sonrasında tekrar silinir;
+     * böylece commit öncesinde eski veriyle doldurulan kayıtlar önbellekte kalmaz.
+     * @param shoppingListId Yetkileri değişen listenin ID'si.
+     */
+    public void evict(Long shoppingListId) {
+        aclCache.invalidate(shoppingListId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aclCache.invalidate(shoppingListId);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return aclCache.stats();
+    }
+
+    public long size() {
+        return aclCache.estimatedSize();
+    }
+
+    // Önbellekte yoksa tek sorguyla yükler; liste yoksa null döner (önbelleğe alınmaz).
+    private Access resolve(Long shoppingListId, Long userId) {
+        Map<Long, Access> acl = aclCache.get(shoppingListId, id -> new ConcurrentHashMap<>());
+        Access cached = acl.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<ListAccessView> view = listShareRepository.findAccess(shoppingListId, userId);
+        if (view.isEmpty()) {
+            return null;
+        }
+        Access access = userId.equals(view.get().getOwnerId())
+                ? new Access(PermissionLevel.ADMIN)
+                : new Access(view.get().getPermissionLevel());
+        acl.put(userId, access);
+        return access;
+    }
+
+    private boolean hasAtLeast(Access access, PermissionLevel required) {
+        return access != null && access.level() != null && access.level().compareTo(required) >= 0;
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.listedenalbackend.service;
 
+import com.example.listedenalbackend.dto.ListShareView;
 import com.example.listedenalbackend.model.ListShare;
 import com.example.listedenalbackend.model.ShoppingList;
+import com.example.listedenalbackend.model.Tombstone;
 import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.realtime.ListChangeEvent;
 import com.example.listedenalbackend.repository.ListShareRepository;
 import com.example.listedenalbackend.repository.ShoppingListRepository;
 import com.example.listedenalbackend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,19 +20,29 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "app.service", description = "Service method execution time")
 public class ListShareService {
 
     private final ListShareRepository listShareRepository;
     private final ShoppingListRepository shoppingListRepository;
     private final UserRepository userRepository;
+    private final ListPermissionService listPermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
 
     @Autowired
     public ListShareService(ListShareRepository listShareRepository,
                             ShoppingListRepository shoppingListRepository,
-                            UserRepository userRepository) {
+                            UserRepository userRepository,
+                            ListPermissionService listPermissionService,
+                            ApplicationEventPublisher eventPublisher,
+                            SyncService syncService) {
         this.listShareRepository = listShareRepository;
         this.shoppingListRepository = shoppingListRepository;
         this.userRepository = userRepository;
+        this.listPermissionService = listPermissionService;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
     }
 
     public List<ListShare> getAllListShares() {
@@ -38,10 +53,11 @@ public class ListShareService {
         return listShareRepository.findById(id);
     }
 
-    public List<ListShare> getSharesForList(Long shoppingListId) {
-        ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
-                .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
-        return listShareRepository.findByShoppingList(shoppingList);
+    public List<ListShareView> getSharesForList(Long shoppingListId, Long currentUserId) {
+        // Yetki kontrolü: Paylaşımları sadece listeyi görüntüleyebilenler görebilir (Liste yoksa IllegalArgumentException)
+        listPermissionService.checkPermission(shoppingListId, currentUserId, ListShare.PermissionLevel.VIEWER,
+                "User does not have permission to view shares of this shopping list.");
+        return listShareRepository.findViewsByShoppingListId(shoppingListId);
     }
 
     public List<ListShare> getSharesForUser(Long userId) {
@@ -51,7 +67,7 @@ public class ListShareService {
     }
 
     @Transactional
-    public ListShare createListShare(Long shoppingListId, Long sharedUserId, ListShare.PermissionLevel permissionLevel, Long currentUserId) {
+    public ListShareView createListShare(Long shoppingListId, Long sharedUserId, ListShare.PermissionLevel permissionLevel, Long currentUserId) {
         ShoppingList shoppingList = shoppingListRepository.findById(shoppingListId)
                 .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
 
@@ -59,7 +75,7 @@ public class ListShareService {
                 .orElseThrow(() -> new IllegalArgumentException("Shared user not found with id: " + sharedUserId));
 
         // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan paylaşım ekleyebilir
-        if (!hasAdminPermission(shoppingList, currentUserId)) {
+        if (!listPermissionService.canAdmin(shoppingListId, currentUserId)) {
             throw new SecurityException("User does not have permission to manage shares for this shopping list.");
         }
 
@@ -78,20 +94,29 @@ public class ListShareService {
         listShare.setSharedUser(sharedUser);
         listShare.setPermissionLevel(permissionLevel);
         listShare.setSharedAt(LocalDateTime.now());
+        listShare.setChangeVersion(syncService.nextVersion(shoppingListId));
 
-        return listShareRepository.save(listShare);
+        ListShare savedShare = listShareRepository.save(listShare);
+        listPermissionService.evict(shoppingListId);
+        eventPublisher.publishEvent(ListChangeEvent.share(shoppingListId, ListChangeEvent.Action.CREATED, savedShare.getId()));
+        return ListShareView.from(savedShare);
     }
 
     @Transactional
-    public ListShare updateListShare(Long listShareId, ListShare.PermissionLevel newPermissionLevel, Long currentUserId) {
+    public ListShareView updateListShare(Long listShareId, ListShare.PermissionLevel newPermissionLevel, Long currentUserId) {
         return listShareRepository.findById(listShareId).map(existingShare -> {
             // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan güncelleyebilir
-            if (!hasAdminPermission(existingShare.getShoppingList(), currentUserId)) {
+            Long shoppingListId = existingShare.getShoppingList().getId();
+            if (!listPermissionService.canAdmin(shoppingListId, currentUserId)) {
                 throw new SecurityException("User does not have permission to update this list share.");
             }
 
+            existingShare.setChangeVersion(syncService.nextVersion(shoppingListId));
             existingShare.setPermissionLevel(newPermissionLevel);
-            return listShareRepository.save(existingShare);
+            ListShare savedShare = listShareRepository.save(existingShare);
+            listPermissionService.evict(shoppingListId);
+            eventPublisher.publishEvent(ListChangeEvent.share(shoppingListId, ListChangeEvent.Action.UPDATED, savedShare.getId()));
+            return ListShareView.from(savedShare);
         }).orElseThrow(() -> new IllegalArgumentException("ListShare not found with id: " + listShareId));
     }
 
@@ -101,7 +126,7 @@ public class ListShareService {
                 .orElseThrow(() -> new IllegalArgumentException("ListShare not found with id: " + listShareId));
 
         // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan silebilir
-        if (!hasAdminPermission(listShare.getShoppingList(), currentUserId)) {
+        if (!listPermissionService.canAdmin(listShare.getShoppingList().getId(), currentUserId)) {
             throw new SecurityException("User does not have permission to delete this list share.");
         }
 
@@ -111,15 +136,9 @@ public class ListShareService {
         }
 
         listShareRepository.deleteById(listShareId);
-    }
-
-    // Yardımcı metot: Kullanıcının belirli bir liste üzerinde ADMIN yetkisi var mı?
-    private boolean hasAdminPermission(ShoppingList shoppingList, Long userId) {
-        if (shoppingList.getOwner().getId().equals(userId)) {
-            return true; // Liste sahibi her zaman ADMIN yetkisine sahiptir
-        }
-        return listShareRepository.findByShoppingListAndSharedUser(shoppingList, userRepository.findById(userId).orElse(null))
-                .map(share -> share.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                .orElse(false);
+        Long shoppingListId = listShare.getShoppingList().getId();
+        syncService.recordDeletion(shoppingListId, Tombstone.EntityType.SHARE, listShareId, syncService.nextVersion(shoppingListId));
+        listPermissionService.evict(shoppingListId);
+        eventPublisher.publishEvent(ListChangeEvent.share(shoppingListId, ListChangeEvent.Action.DELETED, listShareId));
     }
 }
\ No newline at end of file
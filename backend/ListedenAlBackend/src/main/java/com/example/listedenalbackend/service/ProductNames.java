@@ -0,0 +1,34 @@
+package com.example.listedenalbackend.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Aynı ürünün farklı yazımlarını ("Süt", " SÜT ", "süt") eşleştirmek için ürün adı/birim normalizasyonu.
+ * Küçük harfe çevirme Türkçe kurallarıyla yapılır ("I" -> "ı", "İ" -> "i").
+ */
+final class ProductNames {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+    // Ad ile birimi ayırır; kullanıcı girdisinde görünmeyen bir kontrol karakteridir
+    private static final char SEPARATOR = '\u001F';
+
+    private ProductNames() {
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String composed = Normalizer.normalize(value, Normalizer.Form.NFC);
+        return composed.trim().replaceAll("\\s+", " ").toLowerCase(TURKISH);
+    }
+
+    /**
+     * Birleştirme anahtarı: normalize edilmiş ad ve birim. Aynı listede aynı anahtara sahip satın alınmamış ürünler birleştirilir.
+     * Veritabanındaki karşılığı list_item_merge_key fonksiyonudur (V8); biri değişirse diğeri de değiştirilmelidir.
+     */
+    static String mergeKey(String productName, String unit) {
+        return normalize(productName) + SEPARATOR + normalize(unit);
+    }
+}
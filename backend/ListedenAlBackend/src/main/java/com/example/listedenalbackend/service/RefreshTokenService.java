@@ -0,0 +1,222 @@
+package com.example.listedenalbackend.service;
+
+import com.example.listedenalbackend.dto.LoginResponse;
+import com.example.listedenalbackend.model.RefreshToken;
+import com.example.listedenalbackend.repository.RefreshTokenRepository;
+import com.example.listedenalbackend.repository.projection.RefreshTokenSessionRow;
+import com.example.listedenalbackend.security.CustomUserDetailsService;
+import com.example.listedenalbackend.security.UserPrincipalCache;
+import com.example.listedenalbackend.security.jwt.JwtTokenProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Dönen (rotating) yenileme token'ları. Girişte bir token ailesi başlatılır; her yenilemede kullanılan token tüketilir
+ * ve aynı aileden yenisi verilir. Tüketilmiş veya iptal edilmiş bir token tekrar gelirse token çalınmış kabul edilir
+ * ve tüm aile iptal edilir.
+ * Yenileme şifre doğrulaması (BCrypt) yapmaz: token özeti önce bellek içi önbellekte, yoksa benzersiz indeksle
+ * veritabanında aranır; tüketme işlemi koşullu UPDATE ile veritabanında yapılır, bu yüzden önbellek birden çok
+ * sunucuda da tutarlılığı bozmaz.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final JwtTokenProvider tokenProvider;
+    private final Duration tokenTtl;
+    private final int purgeBatchSize;
+    private final int purgeMaxBatches;
+
+    // Token özeti -> aktif token bilgisi; yalnızca okuma sorgusunu atlamak içindir, doğruluk veritabanındadır
+    private final Cache<String, Session> sessions;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               CustomUserDetailsService customUserDetailsService,
+                               UserPrincipalCache userPrincipalCache,
+                               JwtTokenProvider tokenProvider,
+                               @Value("${app.auth.refresh-token.ttl-days:30}") long ttlDays,
+                               @Value("${app.auth.refresh-token.cache-max-size:10000}") long cacheMaxSize,
+                               @Value("${app.auth.refresh-token.purge-batch-size:500}") int purgeBatchSize,
+                               @Value("${app.auth.refresh-token.purge-max-batches:20}") int purgeMaxBatches) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.customUserDetailsService = customUserDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenTtl = Duration.ofDays(ttlDays);
+        this.purgeBatchSize = purgeBatchSize;
+        this.purgeMaxBatches = purgeMaxBatches;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(tokenTtl)
+                .build();
+    }
+
+    /**
+     * Başarılı girişten sonra yeni bir token ailesi başlatır.
+     * @return İstemciye bir kez verilen ham yenileme token'ı (veritabanında yalnızca özeti tutulur).
+     */
+    @Transactional
+    public String issue(Long userId, String email) {
+        return issueInFamily(userId, email, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Yenileme token'ını tüketir; yeni erişim token'ı ve aynı aileden yeni yenileme token'ı döndürür.
+     * Yeniden kullanım tespit edildiğinde aile iptali, hata fırlatılsa da commit edilir.
+     * @throws BadCredentialsException Token geçersiz, süresi dolmuş, iptal edilmiş veya daha önce kullanılmışsa.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public LoginResponse refresh(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token is required.");
+        }
+        String tokenHash = hash(rawToken);
+        LocalDateTime now = LocalDateTime.now();
+
+        Session session = sessions.getIfPresent(tokenHash);
+        if (session == null) {
+            RefreshTokenSessionRow row = refreshTokenRepository.findSessionByTokenHash(tokenHash)
+                    .orElseThrow(() -> new BadCredentialsException("Invalid refresh token."));
+            session = Session.from(row);
+            if (row.getUsedAt() != null || row.getRevokedAt() != null) {
+                throw reuseDetected(session, now);
+            }
+        }
+        if (!session.expiresAt().isAfter(now)) {
+            sessions.invalidate(tokenHash);
+            throw new BadCredentialsException("Refresh token has expired.");
+        }
+        // Eşzamanlı ikinci kullanım veya başka sunucuda iptal edilmiş aile burada yakalanır
+        if (refreshTokenRepository.markUsed(session.id(), now) == 0) {
+            throw reuseDetected(session, now);
+        }
+        sessions.invalidate(tokenHash);
+
+        UserDetails principal = userPrincipalCache.get(session.email(), customUserDetailsService::loadUserByUsername);
+        String accessToken = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        LoginResponse response = new LoginResponse();
+        response.setAccessToken(accessToken);
+        response.setEmail(session.email());
+        response.setRefreshToken(issueInFamily(session.userId(), session.email(), session.familyId()));
+        return response;
+    }
+
+    /**
+     * Token'ın ailesini iptal eder (çıkış). Bilinmeyen token'lar sessizce yok sayılır.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findSessionByTokenHash(hash(rawToken)).ifPresent(row -> {
+            refreshTokenRepository.revokeFamily(row.getFamilyId(), LocalDateTime.now());
+            evictFamily(row.getFamilyId());
+        });
+    }
+
+    /**
+     * Kullanıcının tüm yenileme token'larını iptal eder (şifre veya e-posta değişikliğinde çağrılır).
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        sessions.asMap().values().removeIf(session -> session.userId().equals(userId));
+    }
+
+    // Süresi geçmiş token'lar parça parça silinir; iptal edilmiş ama süresi geçmemiş olanlar yeniden kullanım tespiti için kalır
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token.purge-interval-ms:3600000}",
+            initialDelayString = "${app.auth.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int total = 0;
+            for (int batch = 0; batch < purgeMaxBatches; batch++) {
+                int purged = refreshTokenRepository.purgeExpiredBefore(now, purgeBatchSize);
+                total += purged;
+                if (purged < purgeBatchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                logger.info("Refresh token purge: {} expired tokens deleted", total);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Refresh token purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private String issueInFamily(Long userId, String email, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setExpiresAt(LocalDateTime.now().plus(tokenTtl));
+        RefreshToken saved = refreshTokenRepository.save(token);
+
+        sessions.put(saved.getTokenHash(), new Session(saved.getId(), userId, email, familyId, saved.getExpiresAt()));
+        return rawToken;
+    }
+
+    private AuthenticationException reuseDetected(Session session, LocalDateTime now) {
+        logger.warn("Refresh token reuse detected for user {}; revoking token family {}", session.userId(), session.familyId());
+        refreshTokenRepository.revokeFamily(session.familyId(), now);
+        evictFamily(session.familyId());
+        return new BadCredentialsException("Refresh token has already been used or revoked.");
+    }
+
+    private void evictFamily(String familyId) {
+        sessions.asMap().values().removeIf(session -> session.familyId().equals(familyId));
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private record Session(Long id, Long userId, String email, String familyId, LocalDateTime expiresAt) {
+
+        static Session from(RefreshTokenSessionRow row) {
+            return new Session(row.getId(), row.getUserId(), row.getEmail(), row.getFamilyId(), row.getExpiresAt());
+        }
+    }
+}
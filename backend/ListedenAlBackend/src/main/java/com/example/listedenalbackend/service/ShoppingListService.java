@@ -1,34 +1,58 @@
 package com.example.listedenalbackend.service;
 
+import com.example.listedenalbackend.dto.CursorPage;
+import com.example.listedenalbackend.dto.ShoppingListUpdateRequest;
+import com.example.listedenalbackend.dto.ShoppingListView;
+import com.example.listedenalbackend.dto.VersionedResult;
+import com.example.listedenalbackend.exception.ConflictException;
 import com.example.listedenalbackend.model.ShoppingList;
 import com.example.listedenalbackend.model.User;
 import com.example.listedenalbackend.model.ListShare;
+import com.example.listedenalbackend.realtime.ListChangeEvent;
 import com.example.listedenalbackend.repository.ShoppingListRepository;
 import com.example.listedenalbackend.repository.ListShareRepository;
 import com.example.listedenalbackend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "app.service", description = "Service method execution time")
 public class ShoppingListService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final List<Boolean> ALL_ARCHIVED_STATES = List.of(false, true);
+
     private final ShoppingListRepository shoppingListRepository;
     private final ListShareRepository listShareRepository;
     private final UserRepository userRepository; // Paylaşılan kullanıcıları bulmak için
+    private final ListPermissionService listPermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
 
     @Autowired
     public ShoppingListService(ShoppingListRepository shoppingListRepository,
                                ListShareRepository listShareRepository,
-                               UserRepository userRepository) {
+                               UserRepository userRepository,
+                               ListPermissionService listPermissionService,
+                               ApplicationEventPublisher eventPublisher,
+                               SyncService syncService) {
         this.shoppingListRepository = shoppingListRepository;
         this.listShareRepository = listShareRepository;
         this.userRepository = userRepository;
+        this.listPermissionService = listPermissionService;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
     }
 
     public List<ShoppingList> getAllShoppingLists() {
@@ -39,8 +63,16 @@ public class ShoppingListService {
         return shoppingListRepository.findById(id);
     }
 
+    // Kullanıcının görüntüleme yetkisi olan listeyi getirir; liste yoksa veya erişim yoksa boş döner
+    public Optional<ShoppingListView> getShoppingListForUser(Long id, Long userId) {
+        if (!listPermissionService.canView(id, userId)) {
+            return Optional.empty();
+        }
+        return shoppingListRepository.findViewById(id);
+    }
+
     @Transactional
-    public ShoppingList createShoppingList(ShoppingList shoppingList, Long ownerId) {
+    public ShoppingListView createShoppingList(ShoppingList shoppingList, Long ownerId) {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new IllegalArgumentException("Owner user not found with id: " + ownerId));
 
@@ -48,6 +80,7 @@ public class ShoppingListService {
         shoppingList.setCreatedAt(LocalDateTime.now());
         shoppingList.setUpdatedAt(LocalDateTime.now());
         shoppingList.setArchived(false); // Varsayılan olarak arşivlenmemiş
+        shoppingList.setVersion(null); // Sürüm Hibernate tarafından başlatılır
 
         ShoppingList savedList = shoppingListRepository.save(shoppingList);
 
@@ -58,51 +91,76 @@ public class ShoppingListService {
         ownerShare.setPermissionLevel(ListShare.PermissionLevel.ADMIN);
         listShareRepository.save(ownerShare);
 
-        return savedList;
+        return ShoppingListView.from(savedList);
     }
 
 
+    /**
+     * Listenin adını, açıklamasını ve arşiv durumunu günceller; gönderilmeyen alanlar korunur.
+     * İstek eski bir liste sürümüne dayanıyorsa çakışmayan alan değişiklikleri birleştirilir (bkz. ListItemService.updateListItem).
+     * @throws IllegalArgumentException Liste bulunamazsa.
+     * @throws SecurityException Yönetici yetkisi yoksa.
+     * @return Güncellenmiş liste ve bu güncellemenin ürettiği liste sürümü (ETag için).
+     * @throws ConflictException Eşzamanlı bir değişiklikle çakışma varsa (409).
+     */
     @Transactional
-    public ShoppingList updateShoppingList(Long id, ShoppingList updatedListDetails, Long currentUserId) {
+    public VersionedResult<ShoppingListView> updateShoppingList(Long id, ShoppingListUpdateRequest request, Long currentUserId, Long expectedVersion) {
         return shoppingListRepository.findById(id).map(existingList -> {
             // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan güncelleyebilir
-            boolean hasPermission = existingList.getOwner().getId().equals(currentUserId) ||
-                    listShareRepository.findByShoppingListAndSharedUser(existingList, userRepository.findById(currentUserId).orElse(null))
-                            .map(ls -> ls.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                            .orElse(false);
-
-            if (!hasPermission) {
+            if (!listPermissionService.canAdmin(id, currentUserId)) {
                 throw new SecurityException("User does not have permission to update this shopping list.");
             }
 
-            if (updatedListDetails.getName() != null) {
-                existingList.setName(updatedListDetails.getName());
+            boolean stale = request.getVersion() != null && !request.getVersion().equals(existingList.getVersion());
+            if (stale && request.getOriginal() == null) {
+                throw new ConflictException("ShoppingList " + id + " was modified by another user.", ShoppingListView.from(existingList), List.of());
+            }
+            ShoppingListView original = request.getOriginal() != null ? request.getOriginal() : new ShoppingListView();
+            FieldMerge merge = new FieldMerge(stale);
+            String name = merge.resolve("name", request.getName(), original.getName(), existingList.getName());
+            String description = merge.resolve("description", request.getDescription(), original.getDescription(), existingList.getDescription());
+            Boolean archived = merge.resolve("archived", request.getArchived(), original.isArchived(), existingList.isArchived());
+            if (!merge.getConflicts().isEmpty()) {
+                throw new ConflictException("ShoppingList " + id + " was modified by another user.", ShoppingListView.from(existingList), merge.getConflicts());
+            }
+
+            // If-Match verilmişse liste hâlâ istemcinin gördüğü sürümde olmalıdır
+            long listVersion = syncService.nextVersion(id, expectedVersion);
+
+            if (name != null) {
+                existingList.setName(name);
             }
-            if (updatedListDetails.getDescription() != null) {
-                existingList.setDescription(updatedListDetails.getDescription());
+            if (description != null) {
+                existingList.setDescription(description);
+            }
+            if (archived != null) {
+                existingList.setArchived(archived);
             }
-            existingList.setArchived(updatedListDetails.isArchived());
             existingList.setUpdatedAt(LocalDateTime.now());
-            return shoppingListRepository.save(existingList);
+            // Flush, @Version artışını yanıta yansıtır; eşzamanlı bir commit burada optimistic lock hatası verir
+            ShoppingList savedList = shoppingListRepository.saveAndFlush(existingList);
+            eventPublisher.publishEvent(ListChangeEvent.list(id, ListChangeEvent.Action.UPDATED));
+            return new VersionedResult<>(ShoppingListView.from(savedList), listVersion);
         }).orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + id));
     }
 
     @Transactional
-    public void deleteShoppingList(Long id, Long currentUserId) {
+    public void deleteShoppingList(Long id, Long currentUserId, Long expectedVersion) {
         ShoppingList shoppingList = shoppingListRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + id));
 
         // Yetki kontrolü: Sadece liste sahibi veya ADMIN yetkisine sahip olan silebilir
-        boolean hasPermission = shoppingList.getOwner().getId().equals(currentUserId) ||
-                listShareRepository.findByShoppingListAndSharedUser(shoppingList, userRepository.findById(currentUserId).orElse(null))
-                        .map(ls -> ls.getPermissionLevel() == ListShare.PermissionLevel.ADMIN)
-                        .orElse(false);
-
-        if (!hasPermission) {
+        if (!listPermissionService.canAdmin(shoppingList.getId(), currentUserId)) {
             throw new SecurityException("User does not have permission to delete this shopping list.");
         }
+        if (expectedVersion != null) {
+            syncService.nextVersion(id, expectedVersion);
+        }
 
         shoppingListRepository.deleteById(id);
+        syncService.purgeList(id);
+        listPermissionService.evict(id);
+        eventPublisher.publishEvent(ListChangeEvent.list(id, ListChangeEvent.Action.DELETED));
     }
 
     public List<ShoppingList> getShoppingListsByOwner(Long ownerId) {
@@ -111,23 +169,47 @@ public class ShoppingListService {
         return shoppingListRepository.findByOwner(owner);
     }
 
-    // Bir kullanıcının hem sahibi olduğu hem de kendisine paylaşılan tüm listeleri getir
-    public List<ShoppingList> getUserAccessibleShoppingLists(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
-
-        // Sahip olunan listeler
-        List<ShoppingList> ownedLists = shoppingListRepository.findByOwner(user);
+    // Bir kullanıcının hem sahibi olduğu hem de kendisine paylaşılan tüm listeleri tek sorguda getir
+    public List<ShoppingListView> getUserAccessibleShoppingLists(Long userId) {
+        return shoppingListRepository.findAccessible(userId, ALL_ARCHIVED_STATES, Limit.unlimited());
+    }
 
-        // Paylaşılan listeler
-        List<ShoppingList> sharedLists = listShareRepository.findBySharedUser(user)
-                .stream()
-                .map(ListShare::getShoppingList)
-                .collect(Collectors.toList());
+    /**
+     * Kullanıcının erişebildiği listeleri updatedAt'e göre (yeniden eskiye) keyset sayfalama ile getirir.
+     * @param archived null ise tüm listeler, aksi halde yalnızca bu arşiv durumundaki listeler.
+     * @param cursor Önceki sayfanın nextCursor değeri; ilk sayfa için null.
+     * @param size Sayfa boyutu (1..MAX_PAGE_SIZE aralığına çekilir).
+     */
+    public CursorPage<ShoppingListView> getUserAccessibleShoppingLists(Long userId, Boolean archived, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Collection<Boolean> archivedStates = archived == null ? ALL_ARCHIVED_STATES : List.of(archived);
+        // Bir fazla kayıt çekilerek sonraki sayfanın olup olmadığı ayrıca sayım sorgusu yapmadan anlaşılır
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ShoppingListView> lists;
+        if (cursor == null || cursor.isBlank()) {
+            lists = shoppingListRepository.findAccessible(userId, archivedStates, limit);
+        } else {
+            KeysetCursor keyset = KeysetCursor.decode(cursor);
+            if (keyset.sortKey() == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime cursorUpdatedAt;
+            try {
+                cursorUpdatedAt = LocalDateTime.parse(keyset.sortKey());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+            lists = shoppingListRepository.findAccessibleAfter(userId, archivedStates, cursorUpdatedAt, keyset.id(), limit);
+        }
 
-        // İki listeyi birleştir ve benzersiz listeleri döndür
-        return java.util.stream.Stream.concat(ownedLists.stream(), sharedLists.stream())
-                .distinct()
-                .collect(Collectors.toList());
+        boolean hasMore = lists.size() > pageSize;
+        List<ShoppingListView> page = hasMore ? lists.subList(0, pageSize) : lists;
+        String nextCursor = null;
+        if (hasMore) {
+            ShoppingListView last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getUpdatedAt(), last.getId());
+        }
+        return new CursorPage<>(page, nextCursor, hasMore);
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.example.listedenalbackend.service;
+
+import com.example.listedenalbackend.dto.ListItemView;
+import com.example.listedenalbackend.dto.ListShareView;
+import com.example.listedenalbackend.dto.ShoppingListView;
+import com.example.listedenalbackend.dto.SyncResponse;
+import com.example.listedenalbackend.exception.PreconditionFailedException;
+import com.example.listedenalbackend.model.ListShare.PermissionLevel;
+import com.example.listedenalbackend.model.Tombstone;
+import com.example.listedenalbackend.repository.ListItemRepository;
+import com.example.listedenalbackend.repository.ListShareRepository;
+import com.example.listedenalbackend.repository.ShoppingListRepository;
+import com.example.listedenalbackend.repository.TombstoneRepository;
+import com.example.listedenalbackend.repository.projection.ListVersionView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Liste bazlı değişiklik sürümlerini yönetir ve delta senkronizasyonu sağlar.
+ * <p>
+ * Her liste yazması (ürün, paylaşım veya liste bilgisi) listenin changeVersion değerini bir artırır ve
+ * değişen kayda bu sürümü yazar; silinen ürün/paylaşımlar için Tombstone kaydı tutulur.
+ * İstemci imleci, bildiği her liste için son gördüğü sürümü taşır.
+ */
+@Service
+public class SyncService {
+
+    private final ShoppingListRepository shoppingListRepository;
+    private final ListItemRepository listItemRepository;
+    private final ListShareRepository listShareRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final ListPermissionService listPermissionService;
+
+    @Autowired
+    public SyncService(ShoppingListRepository shoppingListRepository,
+                       ListItemRepository listItemRepository,
+                       ListShareRepository listShareRepository,
+                       TombstoneRepository tombstoneRepository,
+                       ListPermissionService listPermissionService) {
+        this.shoppingListRepository = shoppingListRepository;
+        this.listItemRepository = listItemRepository;
+        this.listShareRepository = listShareRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.listPermissionService = listPermissionService;
+    }
+
+    /**
+     * Listenin değişiklik sürümünü artırır ve yeni sürümü döndürür. Çağıran transaction'ın parçası olarak çalışır.
+     * @throws IllegalArgumentException Liste bulunamazsa.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextVersion(Long shoppingListId) {
+        Long version = shoppingListRepository.incrementChangeVersion(shoppingListId);
+        if (version == null) {
+            throw new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId);
+        }
+        return version;
+    }
+
+    /**
+     * If-Match ile gelen beklenen sürüm verilmişse sürümü yalnızca liste hâlâ o sürümdeyse artırır.
+     * Kontrol ve artırma tek UPDATE ile yapıldığından eşzamanlı yazmalar arasında yarış oluşmaz.
+     * @param expectedVersion Beklenen güncel sürüm; null ise koşulsuz artırılır.
+     * @throws PreconditionFailedException Liste beklenen sürümde değilse.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextVersion(Long shoppingListId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return nextVersion(shoppingListId);
+        }
+        Long version = shoppingListRepository.incrementChangeVersionIfCurrent(shoppingListId, expectedVersion);
+        if (version == null) {
+            throw new PreconditionFailedException("ShoppingList " + shoppingListId + " is no longer at version " + expectedVersion + ".");
+        }
+        return version;
+    }
+
+    /**
+     * Kullanıcının görüntüleme yetkisini kontrol ederek listenin güncel sürümünü döndürür (ETag için).
+     * @throws IllegalArgumentException Liste bulunamazsa.
+     * @throws SecurityException Listeyi görüntüleme yetkisi yoksa.
+     */
+    public long getListVersion(Long shoppingListId, Long userId) {
+        listPermissionService.checkPermission(shoppingListId, userId, PermissionLevel.VIEWER,
+                "User does not have permission to view this shopping list.");
+        return shoppingListRepository.findChangeVersionById(shoppingListId)
+                .orElseThrow(() -> new IllegalArgumentException("ShoppingList not found with id: " + shoppingListId));
+    }
+
+    /**
+     * Kullanıcının erişebildiği listelerin kimlik ve sürümlerinden türetilen özet (liste koleksiyonu ETag'i için).
+     * Liste eklendiğinde, kaldırıldığında veya herhangi bir listede değişiklik olduğunda değişir.
+     */
+    public String getAccessibleListsFingerprint(Long userId) {
+        StringJoiner joiner = new StringJoiner(",");
+        shoppingListRepository.findAccessibleVersions(userId).stream()
+                .sorted(Comparator.comparing(ListVersionView::getId))
+                .forEach(list -> joiner.add(list.getId() + ":" + list.getChangeVersion()));
+        return DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Long shoppingListId, Tombstone.EntityType entityType, Long entityId, long version) {
+        Tombstone tombstone = new Tombstone();
+        tombstone.setShoppingListId(shoppingListId);
+        tombstone.setEntityType(entityType);
+        tombstone.setEntityId(entityId);
+        tombstone.setChangeVersion(version);
+        tombstoneRepository.save(tombstone);
+    }
+
+    // Liste silindiğinde izleri de silinir; listenin kaldırıldığı imleç farkından anlaşılır
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void purgeList(Long shoppingListId) {
+        tombstoneRepository.deleteByShoppingListId(shoppingListId);
+    }
+
+    /**
+     * Kullanıcının erişebildiği listelerde, imleçteki sürümlerden sonra olan değişiklikleri döndürür.
+     * Tüm okumalar tek bir anlık görüntü (snapshot) üzerinden yapılır; dönen imleç bu görüntüyle tutarlıdır.
+     * @param since Önceki yanıttaki cursor; ilk senkronizasyon için null (tüm veriler döner).
+     * @throws IllegalArgumentException İmleç geçersizse.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncResponse sync(Long userId, String since) {
+        Map<Long, Long> knownVersions = decodeCursor(since);
+
+        Map<Long, Long> currentVersions = new LinkedHashMap<>();
+        List<Long> changedListIds = new ArrayList<>();
+        for (ListVersionView list : shoppingListRepository.findAccessibleVersions(userId)) {
+            currentVersions.put(list.getId(), list.getChangeVersion());
+            Long knownVersion = knownVersions.get(list.getId());
+            if (knownVersion == null || list.getChangeVersion() > knownVersion) {
+                changedListIds.add(list.getId());
+            }
+        }
+
+        List<Long> removedListIds = knownVersions.keySet().stream()
+                .filter(listId -> !currentVersions.containsKey(listId))
+                .toList();
+
+        List<ShoppingListView> lists = changedListIds.isEmpty() ? List.of() : shoppingListRepository.findViewsByIdIn(changedListIds);
+        List<ListItemView> items = new ArrayList<>();
+        List<ListShareView> shares = new ArrayList<>();
+        List<Long> deletedItemIds = new ArrayList<>();
+        List<Long> deletedShareIds = new ArrayList<>();
+
+        // Yalnızca değişen listeler sorgulanır; yeni görülen listeler için tüm kayıtlar (sürüm > -1) döner
+        for (Long listId : changedListIds) {
+            Long knownVersion = knownVersions.get(listId);
+            long sinceVersion = knownVersion != null ? knownVersion : -1L;
+            items.addAll(listItemRepository.findViewsChangedSince(listId, sinceVersion));
+            shares.addAll(listShareRepository.findViewsChangedSince(listId, sinceVersion));
+            if (knownVersion != null) {
+                for (Tombstone tombstone : tombstoneRepository.findByShoppingListIdAndChangeVersionGreaterThan(listId, sinceVersion)) {
+                    if (tombstone.getEntityType() == Tombstone.EntityType.ITEM) {
+                        deletedItemIds.add(tombstone.getEntityId());
+                    } else {
+                        deletedShareIds.add(tombstone.getEntityId());
+                    }
+                }
+            }
+        }
+
+        return new SyncResponse(lists, items, shares, deletedItemIds, deletedShareIds, removedListIds, encodeCursor(currentVersions));
+    }
+
+    // İmleç: base64url("listId:sürüm,listId:sürüm,...")
+    private String encodeCursor(Map<Long, Long> versions) {
+        StringJoiner joiner = new StringJoiner(",");
+        versions.forEach((listId, version) -> joiner.add(listId + ":" + version));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<Long, Long> decodeCursor(String cursor) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (cursor == null || cursor.isBlank()) {
+            return versions;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.isEmpty()) {
+                return versions;
+            }
+            for (String entry : raw.split(",")) {
+                int separatorIndex = entry.indexOf(':');
+                if (separatorIndex < 0) {
+                    throw new IllegalArgumentException("Invalid sync cursor.");
+                }
+                versions.put(Long.valueOf(entry.substring(0, separatorIndex)), Long.valueOf(entry.substring(separatorIndex + 1)));
+            }
+            return versions;
+        } catch (IllegalArgumentException e) { // NumberFormatException dahil
+            throw new IllegalArgumentException("Invalid sync cursor.", e);
+        }
+    }
+}
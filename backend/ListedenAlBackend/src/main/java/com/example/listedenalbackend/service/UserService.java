@@ -7,10 +7,14 @@ import com.example.listedenalbackend.model.UserRole;
 import com.example.listedenalbackend.repository.UserRepository;
 import com.example.listedenalbackend.repository.RoleRepository;
 import com.example.listedenalbackend.repository.UserRoleRepository;
+import com.example.listedenalbackend.security.TokenVersionRegistry;
+import com.example.listedenalbackend.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,14 +26,24 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final UserRoleRepository userRoleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public UserService(UserRepository userRepository, RoleRepository roleRepository,
-                       UserRoleRepository userRoleRepository, PasswordEncoder passwordEncoder) {
+                       UserRoleRepository userRoleRepository, PasswordEncoder passwordEncoder,
+                       UserPrincipalCache userPrincipalCache, TokenVersionRegistry tokenVersionRegistry,
+                       RefreshTokenService refreshTokenService, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.userRoleRepository = userRoleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userPrincipalCache = userPrincipalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.refreshTokenService = refreshTokenService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<User> getAllUsers() {
@@ -40,7 +54,7 @@ public class UserService {
         return userRepository.findById(id);
     }
 
-    @Transactional
+    // Şifre, veritabanı bağlantısı tutulmadan (transaction dışında) hash'lenir; yalnızca kayıt adımları transaction içindedir
     public User createUser(RegisterRequest newUser) {
 
         if (newUser.getPassword() == null || newUser.getPassword().isEmpty()) {
@@ -55,26 +69,32 @@ public class UserService {
             throw new IllegalArgumentException("Invalid email format");
         }
 
-        if (userRepository.existsByEmail(newUser.getEmail())) {
-            throw new IllegalArgumentException("Kayıt işlemi sırasında bir hata oluştu");
-        }
+        // Kayıtlı e-posta kontrolünden önce hash'lenir; yanıt süresi e-postanın kayıtlı olup olmadığını da ele vermez
+        String hashedPassword = passwordEncoder.encode(newUser.getPassword());
 
-        User user = new User();
-        user.setUsername(newUser.getUsername());
-        user.setEmail(newUser.getEmail());
+        return transactionTemplate.execute(status -> {
+            if (userRepository.existsByEmail(newUser.getEmail())) {
+                throw new IllegalArgumentException("Kayıt işlemi sırasında bir hata oluştu");
+            }
 
-        String hashedPassword = passwordEncoder.encode(newUser.getPassword());
-        user.setPasswordHash(hashedPassword);
+            User user = new User();
+            user.setUsername(newUser.getUsername());
+            user.setEmail(newUser.getEmail());
+            user.setPasswordHash(hashedPassword);
+
+            User savedUser = userRepository.save(user);
 
-        User savedUser = userRepository.save(user);
+            Role userRole = roleRepository.findByName("ROLE_USER")
+                    .orElseGet(() -> roleRepository.save(new Role("ROLE_USER")));
 
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseGet(() -> roleRepository.save(new Role("ROLE_USER")));
+            UserRole newUserRole = new UserRole(savedUser, userRole);
+            userRoleRepository.save(newUserRole);
 
-        UserRole newUserRole = new UserRole(savedUser, userRole);
-        userRoleRepository.save(newUserRole);
+            // Rol ataması değişti; önbellekte bu e-posta için kayıt kalmamalı
+            userPrincipalCache.invalidate(savedUser.getEmail());
 
-        return savedUser;
+            return savedUser;
+        });
     }
 
 
@@ -83,9 +103,21 @@ public class UserService {
         return email.matches(emailRegex);
     }
 
-    @Transactional
+    // Yeni şifre transaction dışında hash'lenir (bkz. createUser)
     public User updateUser(Long id, User userDetails) {
-        return userRepository.findById(id).map(existingUser -> {
+        // getPasswordHash == getPassword for data packet
+        String hashedPassword = null;
+        if (userDetails.getPasswordHash() != null && userDetails.getPasswordHash().length() >= 8) {
+            hashedPassword = passwordEncoder.encode(userDetails.getPasswordHash());
+        } else if (userDetails.getPasswordHash() != null) {
+            throw new IllegalArgumentException("Password must be at least 8 characters long.");
+        }
+        String newPasswordHash = hashedPassword;
+
+        return transactionTemplate.execute(status -> userRepository.findById(id).map(existingUser -> {
+            // Eski e-posta ile önbelleğe alınmış kullanıcı detaylarını geçersiz kıl
+            String previousEmail = existingUser.getEmail();
+            userPrincipalCache.invalidate(previousEmail);
 
             if (userDetails.getUsername() != null && !userDetails.getUsername().equals(existingUser.getUsername())) {
                 existingUser.setUsername(userDetails.getUsername());
@@ -103,22 +135,29 @@ public class UserService {
                 existingUser.setLastName(userDetails.getLastName());
             }
 
-            // getPasswordHash == getPassword for data packet
-            if (userDetails.getPasswordHash() != null && userDetails.getPasswordHash().length() >= 8) {
-                String hashedPassword = passwordEncoder.encode(userDetails.getPasswordHash());
-                existingUser.setPasswordHash(hashedPassword);
-            } else if (userDetails.getPasswordHash() != null) {
-                throw new IllegalArgumentException("Password must be at least 8 characters long.");
+            if (newPasswordHash != null) {
+                existingUser.setPasswordHash(newPasswordHash);
             }
 
+            boolean credentialsChanged = newPasswordHash != null || !existingUser.getEmail().equals(previousEmail);
+
             existingUser.setUpdatedAt(LocalDateTime.now());
-            return userRepository.save(existingUser);
+            User savedUser = userRepository.save(existingUser);
+            userPrincipalCache.invalidate(savedUser.getEmail());
+            // E-posta veya şifre değişmiş olabilir; self-contained token'ları iptal et
+            tokenVersionRegistry.revoke(savedUser.getId());
+            if (credentialsChanged) {
+                refreshTokenService.revokeAllForUser(savedUser.getId());
+            }
+            return savedUser;
 
-        }).orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+        }).orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id)));
     }
 
     @Transactional
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(user -> userPrincipalCache.invalidate(user.getEmail()));
+        tokenVersionRegistry.revoke(id);
         userRepository.deleteById(id);
     }
     public Optional<User> findByEmail(String email) {
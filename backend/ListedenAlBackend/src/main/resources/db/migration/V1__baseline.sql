@@ -0,0 +1,74 @@
+-- Başlangıç şeması: Flyway'e geçilmeden önce ddl-auto=update ile oluşan ilk şemanın birebir karşılığı.
+--
+-- Mevcut bir veritabanında bu betik çalıştırılmaz; spring.flyway.baseline-on-migrate ile sürüm 1 olarak işaretlenir
+-- ve yalnızca sonraki betikler uygulanır. Bu yüzden sonradan eklenen her kolon, tablo, sequence ve indeks V2 ve
+-- sonrasındadır; bu betik değiştirilmemelidir.
+
+CREATE TABLE users (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    createdat    timestamp(6) NOT NULL,
+    email        varchar(255) NOT NULL UNIQUE,
+    firstname    varchar(255),
+    lastname     varchar(255),
+    passwordhash varchar(255) NOT NULL,
+    updatedat    timestamp(6) NOT NULL,
+    username     varchar(255) NOT NULL
+);
+
+CREATE TABLE roles (
+    id   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE user_roles (
+    id      bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    role_id bigint NOT NULL REFERENCES roles (id),
+    user_id bigint NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE shopping_lists (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    createdat   timestamp(6) NOT NULL,
+    description varchar(255),
+    isarchived  boolean      NOT NULL,
+    name        varchar(255) NOT NULL,
+    updatedat   timestamp(6) NOT NULL,
+    owner_id    bigint       NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE list_items (
+    id                   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    createdat            timestamp(6)     NOT NULL,
+    ispurchased          boolean          NOT NULL,
+    notes                varchar(255),
+    priority             integer,
+    productname          varchar(255)     NOT NULL,
+    quantity             double precision NOT NULL,
+    unit                 varchar(255),
+    updatedat            timestamp(6)     NOT NULL,
+    added_by_user_id     bigint REFERENCES users (id),
+    purchased_by_user_id bigint REFERENCES users (id),
+    shopping_list_id     bigint           NOT NULL REFERENCES shopping_lists (id)
+);
+
+CREATE TABLE list_shares (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    permissionlevel  varchar(255) NOT NULL CHECK (permissionlevel IN ('VIEWER', 'EDITOR', 'ADMIN')),
+    sharedat         timestamp(6) NOT NULL,
+    shared_user_id   bigint       NOT NULL REFERENCES users (id),
+    shopping_list_id bigint       NOT NULL REFERENCES shopping_lists (id),
+    UNIQUE (shopping_list_id, shared_user_id)
+);
+
+CREATE TABLE invitations (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    acceptedat        timestamp(6),
+    expiresat         timestamp(6),
+    invitationcode    varchar(255) NOT NULL UNIQUE,
+    recipientemail    varchar(255),
+    sentat            timestamp(6) NOT NULL,
+    status            varchar(255) NOT NULL CHECK (status IN ('PENDING', 'ACCEPTED', 'REJECTED', 'EXPIRED')),
+    recipient_user_id bigint REFERENCES users (id),
+    sender_id         bigint       NOT NULL REFERENCES users (id),
+    shopping_list_id  bigint       NOT NULL REFERENCES shopping_lists (id)
+);
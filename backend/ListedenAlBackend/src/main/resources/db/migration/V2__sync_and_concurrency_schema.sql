@@ -0,0 +1,53 @@
+-- Başlangıç şemasından sonra eklenen kolonlar, tablolar ve sequence'ler.
+-- Betik idempotenttir (IF NOT EXISTS): baseline ile sürüm 1 olarak işaretlenen ve ddl-auto=update ile bu yapıların
+-- bir kısmı zaten oluşmuş olabilecek veritabanlarında da güvenle çalışır.
+
+-- 1. IDENTITY kolonlarından pooled sequence'lere geçiş. Entity'ler ID'leri "<tablo>_seq" sequence'lerinden 50'lik
+--    bloklar halinde alır (allocationSize = 50). Pooled optimizer bir sonraki bloğu nextval - 49 değerinden
+--    başlattığı için sequence max(id) + 50'ye taşınır; ardından kolonun IDENTITY özelliği kaldırılır.
+DO $$
+DECLARE
+    t text;
+    max_id bigint;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'roles', 'user_roles', 'shopping_lists', 'list_items', 'list_shares', 'invitations']
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_seq');
+
+        EXECUTE format('SELECT coalesce(max(id), 0) FROM %I', t) INTO max_id;
+        PERFORM setval(t || '_seq', max_id + 50, false);
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+    END LOOP;
+END $$;
+
+-- 2. Delta senkronizasyon sürümleri (changeVersion) ve iyimser kilitleme sürümleri (version)
+ALTER TABLE shopping_lists ADD COLUMN IF NOT EXISTS changeversion bigint NOT NULL DEFAULT 0;
+ALTER TABLE shopping_lists ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE list_items ADD COLUMN IF NOT EXISTS changeversion bigint NOT NULL DEFAULT 0;
+ALTER TABLE list_items ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE list_shares ADD COLUMN IF NOT EXISTS changeversion bigint NOT NULL DEFAULT 0;
+
+-- 3. Birleştirerek ekleme anahtarı (değerleri ve benzersiz indeksi V3'te)
+ALTER TABLE list_items ADD COLUMN IF NOT EXISTS mergekey varchar(512);
+
+-- 4. Silinen ürün ve paylaşımların izleri
+CREATE SEQUENCE IF NOT EXISTS tombstones_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tombstones (
+    id               bigint       NOT NULL PRIMARY KEY,
+    shopping_list_id bigint       NOT NULL,
+    entitytype       varchar(255) NOT NULL CHECK (entitytype IN ('ITEM', 'SHARE')),
+    entityid         bigint       NOT NULL,
+    changeversion    bigint       NOT NULL,
+    deletedat        timestamp(6) NOT NULL
+);
+
+-- 5. Entity'lerde @Index ile tanımlı indeksler
+CREATE INDEX IF NOT EXISTS idx_list_items_list_created ON list_items (shopping_list_id, createdat, id);
+CREATE INDEX IF NOT EXISTS idx_list_items_list_priority ON list_items (shopping_list_id, priority, id);
+CREATE INDEX IF NOT EXISTS idx_list_items_list_purchased ON list_items (shopping_list_id, ispurchased, createdat, id);
+CREATE INDEX IF NOT EXISTS idx_list_items_list_change_version ON list_items (shopping_list_id, changeversion);
+CREATE INDEX IF NOT EXISTS idx_list_shares_list_change_version ON list_shares (shopping_list_id, changeversion);
+CREATE INDEX IF NOT EXISTS idx_tombstones_list_change_version ON tombstones (shopping_list_id, changeversion);
@@ -0,0 +1,50 @@
+-- Sorgu planına göre eklenen indeksler. IF NOT EXISTS: bir kısmı eski veritabanlarında elle oluşturulmuş olabilir.
+
+-- Erişilebilir listeler (ShoppingListRepository.findAccessible*): sahibine göre, son güncellenen önce
+CREATE INDEX IF NOT EXISTS idx_shopping_lists_owner_updated ON shopping_lists (owner_id, updatedat DESC, id DESC);
+
+-- Kullanıcıyla paylaşılan listeler (findBySharedUser, erişim EXISTS alt sorgusu, izin önbelleği)
+CREATE INDEX IF NOT EXISTS idx_list_shares_user_list ON list_shares (shared_user_id, shopping_list_id);
+
+-- Kullanıcının rolleri (UserDetails yüklenirken)
+CREATE INDEX IF NOT EXISTS idx_user_roles_user ON user_roles (user_id);
+
+-- Büyük/küçük harf duyarsız e-posta aramaları (InvitationService)
+CREATE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+
+-- Ürün adı önek filtresi: lower(productName) LIKE 'önek%'
+CREATE INDEX IF NOT EXISTS idx_list_items_list_name_prefix ON list_items (shopping_list_id, lower(productname) text_pattern_ops);
+
+-- Mevcut satın alınmamış ürünlere birleştirme anahtarı atanır; ifade ProductNames.mergeKey ile aynıdır
+-- (NFC, kırpma, boşlukları teke indirme, Türkçe küçük harf; ad ile birim arasında U+001F).
+-- Aynı listede aynı anahtara düşen ürünlerden yalnızca en eskisi anahtarı alır, diğerleri birleştirmeye katılmaz.
+WITH normalized AS (
+    SELECT id, shopping_list_id,
+           lower(replace(replace(regexp_replace(btrim(normalize(productname, NFC), E' \t\n\r\f\x0B'), E'[ \t\n\r\f\x0B]+', ' ', 'g'),
+                                 'I', 'ı'), 'İ', 'i'))
+               || chr(31) ||
+           lower(replace(replace(regexp_replace(btrim(normalize(coalesce(unit, ''), NFC), E' \t\n\r\f\x0B'), E'[ \t\n\r\f\x0B]+', ' ', 'g'),
+                                 'I', 'ı'), 'İ', 'i')) AS mergekey
+    FROM list_items
+    WHERE NOT ispurchased AND mergekey IS NULL
+), ranked AS (
+    SELECT n.id, n.mergekey, row_number() OVER (PARTITION BY n.shopping_list_id, n.mergekey ORDER BY n.id) AS rn
+    FROM normalized n
+    WHERE NOT EXISTS (SELECT 1 FROM list_items o
+                      WHERE o.shopping_list_id = n.shopping_list_id AND o.mergekey = n.mergekey AND NOT o.ispurchased)
+)
+UPDATE list_items li
+SET mergekey = r.mergekey
+FROM ranked r
+WHERE li.id = r.id AND r.rn = 1;
+
+-- Birleştirerek ekleme (ListItemRepository.upsertMergeable): ON CONFLICT bu kısmi benzersiz indekse dayanır
+CREATE UNIQUE INDEX IF NOT EXISTS uq_list_items_merge_key
+    ON list_items (shopping_list_id, mergekey)
+    WHERE mergekey IS NOT NULL AND NOT ispurchased;
+
+-- Davetiyeler: alıcı kullanıcıya/e-postaya göre bekleyenler, listeye ve gönderene göre
+CREATE INDEX IF NOT EXISTS idx_invitations_recipient_user_status ON invitations (recipient_user_id, status);
+CREATE INDEX IF NOT EXISTS idx_invitations_recipient_email_status ON invitations (lower(recipientemail), status);
+CREATE INDEX IF NOT EXISTS idx_invitations_list ON invitations (shopping_list_id);
+CREATE INDEX IF NOT EXISTS idx_invitations_sender ON invitations (sender_id);
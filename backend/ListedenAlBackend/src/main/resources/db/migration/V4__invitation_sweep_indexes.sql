@@ -0,0 +1,3 @@
+-- InvitationSweeper parçalarını indeksten okur: süresi geçen bekleyenler ve saklama süresini aşan kapanmış davetiyeler
+CREATE INDEX IF NOT EXISTS idx_invitations_pending_expires ON invitations (expiresat) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_invitations_closed_sent ON invitations (sentat) WHERE status <> 'PENDING';
@@ -0,0 +1,17 @@
+-- Bir liste için aynı e-postaya (büyük/küçük harf duyarsız) en fazla bir bekleyen davetiye olabilir.
+-- Eşzamanlı iki gönderimin ikisi de uygulamadaki kontrolü geçerse ikinci INSERT bu indekse takılır.
+
+-- Mevcut yinelenen bekleyen davetiyelerden en yenisi dışındakiler kapatılır
+UPDATE invitations i
+SET status = 'EXPIRED'
+WHERE i.status = 'PENDING'
+  AND EXISTS (SELECT 1
+              FROM invitations j
+              WHERE j.status = 'PENDING'
+                AND j.shopping_list_id = i.shopping_list_id
+                AND lower(j.recipientemail) = lower(i.recipientemail)
+                AND j.id > i.id);
+
+CREATE UNIQUE INDEX uq_invitations_pending_list_email
+    ON invitations (shopping_list_id, lower(recipientemail))
+    WHERE status = 'PENDING';
@@ -0,0 +1,18 @@
+-- Yenileme token'ları: yalnızca SHA-256 özeti saklanır. Kullanıcı silinince token'ları da silinir.
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE refresh_tokens (
+    id         bigint       NOT NULL PRIMARY KEY,
+    user_id    bigint       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    tokenhash  varchar(64)  NOT NULL UNIQUE,
+    familyid   varchar(36)  NOT NULL,
+    createdat  timestamp(6) NOT NULL,
+    expiresat  timestamp(6) NOT NULL,
+    usedat     timestamp(6),
+    revokedat  timestamp(6)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (familyid);
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
+-- Süresi geçmiş token'ların parça parça silinmesi için
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expiresat);
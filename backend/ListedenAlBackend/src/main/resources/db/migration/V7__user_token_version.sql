@@ -0,0 +1,3 @@
+-- Token sürümü (self-contained JWT "ver" claim'i) kalıcı hale getirilir; iptaller yeniden başlatmada
+-- kaybolmaz ve tüm düğümler tarafından görülür
+ALTER TABLE users ADD COLUMN IF NOT EXISTS tokenversion integer NOT NULL DEFAULT 0;
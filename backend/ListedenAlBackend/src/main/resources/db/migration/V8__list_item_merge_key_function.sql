@@ -0,0 +1,12 @@
+-- Birleştirme anahtarının veritabanındaki karşılığı; ifade ProductNames.mergeKey ve V3'teki doldurma ile aynıdır
+-- (NFC, kırpma, boşlukları teke indirme, Türkçe küçük harf; ad ile birim arasında U+001F).
+-- Ürünü yüklemeden çalışan tek ifadelik güncellemeler (ListItemRepository.updatePurchasedIfChanged) anahtarı bununla hesaplar.
+CREATE OR REPLACE FUNCTION list_item_merge_key(productname text, unit text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$
+SELECT lower(replace(replace(regexp_replace(btrim(normalize(productname, NFC), E' \t\n\r\f\x0B'), E'[ \t\n\r\f\x0B]+', ' ', 'g'),
+                             'I', 'ı'), 'İ', 'i'))
+           || chr(31) ||
+       lower(replace(replace(regexp_replace(btrim(normalize(coalesce(unit, ''), NFC), E' \t\n\r\f\x0B'), E'[ \t\n\r\f\x0B]+', ' ', 'g'),
+                             'I', 'ı'), 'İ', 'i'))
+$$;
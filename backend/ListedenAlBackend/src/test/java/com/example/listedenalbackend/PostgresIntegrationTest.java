@@ -0,0 +1,55 @@
+package com.example.listedenalbackend;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Gerçek PostgreSQL üzerinde çalışan testlerin temel sınıfı; şema Flyway betikleriyle kurulur.
+ * IT_POSTGRES_URL (isteğe bağlı IT_POSTGRES_USERNAME / IT_POSTGRES_PASSWORD) verilmişse o veritabanı,
+ * verilmemişse Testcontainers ile başlatılan bir PostgreSQL konteyneri kullanılır. İkisi de yoksa testler atlanır.
+ */
+@SpringBootTest(properties = {
+        "jwt-key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0MTIzNDU2Nzg=",
+        "jwt-exp=3600000",
+        "spring.jpa.show-sql=false"
+})
+public abstract class PostgresIntegrationTest {
+
+    private static final String EXTERNAL_URL = System.getenv("IT_POSTGRES_URL");
+
+    // Tüm test sınıfları aynı konteyneri paylaşır; JVM kapanırken Testcontainers tarafından kaldırılır
+    private static PostgreSQLContainer<?> container;
+
+    @BeforeAll
+    static void requireDatabase() {
+        Assumptions.assumeTrue(EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Neither IT_POSTGRES_URL nor Docker is available");
+    }
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("postgres-url", () -> EXTERNAL_URL);
+            registry.add("postgres-username", () -> System.getenv().getOrDefault("IT_POSTGRES_USERNAME", "postgres"));
+            registry.add("postgres-password", () -> System.getenv().getOrDefault("IT_POSTGRES_PASSWORD", ""));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = container();
+        registry.add("postgres-url", postgres::getJdbcUrl);
+        registry.add("postgres-username", postgres::getUsername);
+        registry.add("postgres-password", postgres::getPassword);
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+}
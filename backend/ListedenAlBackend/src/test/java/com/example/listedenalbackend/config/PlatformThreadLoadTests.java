@@ -0,0 +1,12 @@
+package com.example.listedenalbackend.config;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link ThreadingModeLoadTest} senaryosu, Tomcat'in platform thread havuzuyla (varsayılan mod).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestPropertySource(properties = "virtual-threads=false")
+class PlatformThreadLoadTests extends ThreadingModeLoadTest {
+}
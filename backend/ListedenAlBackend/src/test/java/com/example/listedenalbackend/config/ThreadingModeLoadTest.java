@@ -0,0 +1,217 @@
+package com.example.listedenalbackend.config;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform ve sanal thread modlarını aynı senaryoyla karşılaştıran yük testi. Her istemci, ölçüm süresi boyunca
+ * GET /api/shoppinglists isteğini (sürüm parmak izi + liste sorgusu) yanıtı aldıktan hemen sonra tekrarlar.
+ * Ölçüm penceresinde biten istekler için çıktı, p50/p99 gecikme ve hata sayısı; 100 ms'de bir de bağlantı bekleyenlerin
+ * sayısı (sanal modda datasource.concurrency.waiting, platform modda hikaricp.connections.pending) kaydedilir.
+ * <p>
+ * Varsayılan test çalıştırmasına girmez. Çalıştırma (sanal mod Java 21+ gerektirir):
+ * <pre>
+ * IT_POSTGRES_URL=... mvn -B test -Dloadtest=true -Dtest='PlatformThreadLoadTests,VirtualThreadLoadTests' \
+ *     [-Dloadtest.clients=5000 -Dloadtest.warmup-seconds=60 -Dloadtest.seconds=60]
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt-key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0MTIzNDU2Nzg=",
+        "jwt-exp=3600000",
+        "spring.jpa.show-sql=false",
+        // İstek başına DEBUG kaydı ölçümü bozar
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.http=INFO",
+        "logging.level.com.fasterxml.jackson.databind=INFO",
+        "server.tomcat.accept-count=1000"
+})
+abstract class ThreadingModeLoadTest extends PostgresIntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingModeLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 5000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 60);
+    private static final int MEASURE_SECONDS = Integer.getInteger("loadtest.seconds", 60);
+    // Bağlantılar bir anda açılmaz; binlerce SYN kabul kuyruğunu taşırır
+    private static final int RAMP_UP_STEP = 250;
+    private static final int LISTS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sustainsConcurrentClients() throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            // Kurulum çağrıları ayrı istemciyle yapılır; havuzdaki bağlantısı yük istemcilerine devredilmez
+            String bearer = registerUserWithLists(HttpClient.newHttpClient());
+            HttpRequest request = HttpRequest.newBuilder(uri("/api/shoppinglists"))
+                    .header("Authorization", bearer)
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+            long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(MEASURE_SECONDS);
+            Results results = new Results(measureFrom, measureUntil);
+
+            Gauge waiting = waitingGauge();
+            sampler.scheduleAtFixedRate(() -> results.sample(waiting), 100, 100, TimeUnit.MILLISECONDS);
+
+            List<CompletableFuture<Void>> clients = new ArrayList<>(CLIENTS);
+            for (int started = 0; started < CLIENTS; started++) {
+                clients.add(loop(client, request, results));
+                if ((started + 1) % RAMP_UP_STEP == 0) {
+                    Thread.sleep(250);
+                }
+            }
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(MEASURE_SECONDS + WARMUP_SECONDS + 120L, TimeUnit.SECONDS);
+
+            results.log(getClass().getSimpleName(), waiting == null ? "n/a" : waiting.getId().getName());
+            // Ölçüm testidir: sonuçlar kaydedilir, yalnızca pencerede istek bittiği doğrulanır
+            assertThat(results.completed.sum() + results.failed.sum()).isPositive();
+        } finally {
+            sampler.shutdownNow();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    // Her istemci bir öncekinin yanıtını aldıktan sonra yeni istek gönderir (kapalı döngü)
+    private CompletableFuture<Void> loop(HttpClient client, HttpRequest request, Results results) {
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    results.record(start, System.nanoTime(), error == null && response.statusCode() == 200);
+                    return null;
+                })
+                .thenCompose(ignored -> System.nanoTime() < results.measureUntil
+                        ? loop(client, request, results) : CompletableFuture.completedFuture(null));
+    }
+
+    private Gauge waitingGauge() {
+        Gauge limiter = meterRegistry.find("datasource.concurrency.waiting").gauge();
+        return limiter != null ? limiter : meterRegistry.find("hikaricp.connections.pending").gauge();
+    }
+
+    private String registerUserWithLists(HttpClient client) throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        post(client, "/api/auth/register", null, Map.of("username", "user", "email", email, "password", "secret123"));
+        String bearer = "Bearer " + objectMapper.readTree(post(client, "/api/auth/login", null,
+                Map.of("email", email, "password", "secret123"))).get("accessToken").asText();
+        for (int i = 0; i < LISTS; i++) {
+            post(client, "/api/shoppinglists", bearer, Map.of("name", "Liste " + i));
+        }
+        return bearer;
+    }
+
+    private String post(HttpClient client, String path, String bearer, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", bearer);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isBetween(200, 299);
+        return response.body();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static final class Results {
+
+        private final long measureFrom;
+        private final long measureUntil;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder waitingSamples = new LongAdder();
+        private final LongAdder waitingSum = new LongAdder();
+        private volatile long waitingMax;
+
+        private Results(long measureFrom, long measureUntil) {
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        void record(long start, long end, boolean succeeded) {
+            // Ölçüm penceresinde biten her istek sayılır; gecikme pencereden uzun olsa bile
+            if (end < measureFrom || end > measureUntil) {
+                return;
+            }
+            if (succeeded) {
+                completed.increment();
+                latencies.add(end - start);
+            } else {
+                failed.increment();
+            }
+        }
+
+        void sample(Gauge waiting) {
+            long now = System.nanoTime();
+            if (waiting == null || now < measureFrom || now > measureUntil) {
+                return;
+            }
+            long value = (long) waiting.value();
+            waitingSamples.increment();
+            waitingSum.add(value);
+            waitingMax = Math.max(waitingMax, value);
+        }
+
+        void log(String mode, String waitingMetric) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = TimeUnit.NANOSECONDS.toMillis(measureUntil - measureFrom) / 1000.0;
+            long samples = Math.max(1, waitingSamples.sum());
+            logger.info("{}: clients={} throughput={} req/s p50={} ms p99={} ms failed={} {} avg={} max={}",
+                    mode, CLIENTS, Math.round(completed.sum() / seconds), percentileMs(sorted, 0.50), percentileMs(sorted, 0.99),
+                    failed.sum(), waitingMetric, String.format("%.1f", (double) waitingSum.sum() / samples), waitingMax);
+        }
+
+        private static long percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)]);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.listedenalbackend.config;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link ThreadingModeLoadTest} senaryosu, sanal thread modunda (veritabanı erişimi ConcurrencyLimitedDataSource ile sınırlı).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "virtual-threads=true")
+class VirtualThreadLoadTests extends ThreadingModeLoadTest {
+}
@@ -0,0 +1,95 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Toplu eklemelerin JDBC batch olarak gönderildiğini doğrular. Kimlikler havuzlu dizilerden (allocationSize 50) geldiği için
+ * Hibernate satır başına INSERT ... RETURNING çalıştırmaz; ifade sayısı satır sayısına değil batch sayısına bağlıdır.
+ */
+@AutoConfigureMockMvc
+class BatchInsertTests extends PostgresIntegrationTest {
+
+    private static final int ROWS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchAddInsertsRowsInJdbcBatches() throws Exception {
+        String bearer = registerAndLogin();
+        long listId = json(mockMvc.perform(post("/api/shoppinglists").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Toplu\"}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            operations.add(Map.of("op", "ADD", "item", Map.of("productName", "Ürün " + i, "quantity", 1)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long insertsBefore = statistics.getEntityInsertCount();
+        double statementsBefore = batchStatements();
+
+        JsonNode results = json(mockMvc.perform(post("/api/shoppinglists/{id}/items/batch", listId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        assertThat(results).hasSize(ROWS);
+        assertThat(statistics.getEntityInsertCount() - insertsBefore).isEqualTo(ROWS);
+        // 200 satır: 4 dizi çağrısı ve 4 INSERT batch'i; kalan ifadeler yetki, birleştirme anahtarı ve liste sürümü içindir
+        assertThat(Math.round(batchStatements() - statementsBefore)).isLessThan(20);
+    }
+
+    private double batchStatements() {
+        DistributionSummary summary = meterRegistry.find("hibernate.queries.per.request")
+                .tag("method", "POST").tag("uri", "/api/shoppinglists/{shoppingListId}/items/batch").summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private String registerAndLogin() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"user\",\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isCreated());
+        JsonNode login = json(mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        return "Bearer " + login.get("accessToken").asText();
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
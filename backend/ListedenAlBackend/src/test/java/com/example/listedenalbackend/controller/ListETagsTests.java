@@ -0,0 +1,45 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListETagsTests {
+
+    @Test
+    void ofFormatsStrongETag() {
+        assertThat(ListETags.of(42L, 7)).isEqualTo("\"l42-v7\"");
+    }
+
+    @Test
+    void expectedVersionReadsVersionFromOwnETag() {
+        assertThat(ListETags.expectedVersion(ListETags.of(42L, 7), 42L)).isEqualTo(7L);
+    }
+
+    @Test
+    void expectedVersionIsNullWithoutCondition() {
+        assertThat(ListETags.expectedVersion(null, 42L)).isNull();
+        assertThat(ListETags.expectedVersion("  ", 42L)).isNull();
+        assertThat(ListETags.expectedVersion(" * ", 42L)).isNull();
+    }
+
+    @Test
+    void expectedVersionPicksMatchingTagFromList() {
+        assertThat(ListETags.expectedVersion("\"l41-v3\", \"l42-vx\", \"l42-v9\"", 42L)).isEqualTo(9L);
+    }
+
+    @Test
+    void expectedVersionRejectsTagsOfOtherListsOrMalformedTags() {
+        assertThatThrownBy(() -> ListETags.expectedVersion("\"l41-v7\"", 42L))
+                .isInstanceOf(PreconditionFailedException.class);
+        // Öneki aynı başlayan başka bir liste ("l421") bu listeye ait sayılmaz
+        assertThatThrownBy(() -> ListETags.expectedVersion("\"l421-v7\"", 42L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ListETags.expectedVersion("W/\"l42-v7\"", 42L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ListETags.expectedVersion("\"l42-v\"", 42L))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.example.listedenalbackend.realtime.ListChangeBroadcaster;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SSE yük testi: çok sayıda boşta bekleyen /events aboneliği açılır (engellemeyen HttpClient ile, istemci tarafında da
+ * bağlantı başına thread yoktur). Tek bir yazma işleminin hepsine ulaştığı ve soketini hiç okumayan bir istemcinin
+ * diğerlerini geciktirmediği doğrulanır. Abone sayısı -Drealtime.load.subscribers ile artırılabilir.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt-key=c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0MTIzNDU2Nzg=",
+        "jwt-exp=3600000",
+        "spring.jpa.show-sql=false",
+        // Binlerce akış için istek başına DEBUG kaydı testi yavaşlatır
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.http=INFO",
+        "app.realtime.send-timeout-ms=2000",
+        "server.tomcat.max-connections=25000",
+        "server.tomcat.accept-count=1000",
+        // Takılı yazma Tomcat'in yazma zaman aşımına kadar sürer; eski tek thread'li gönderimde diğer aboneler de bu kadar beklerdi
+        "server.tomcat.connection-timeout=60s"
+})
+class ListEventStreamLoadTests extends PostgresIntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListEventStreamLoadTests.class);
+
+    private static final int SUBSCRIBERS = Integer.getInteger("realtime.load.subscribers", 2000);
+    private static final int CONNECT_CHUNK = 250;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ListChangeBroadcaster listChangeBroadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    // Akışlar ayrı bir istemciyle açılır: JDK 17 istemcisi, havuza dönmüş bir bağlantıyı eşzamanlı sendAsync çağrılarından
+    // birine verdiğinde o istek hiç tamamlanmayabiliyor; REST çağrılarının bağlantısı akışlarla paylaşılmaz
+    private final HttpClient streamClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+    @TestConfiguration
+    static class SmallSendBuffers {
+
+        // Yavaş okuyucuya yazma, çekirdeğin loopback için büyüttüğü tamponlar yerine birkaç KB sonra takılır
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBuffers() {
+            return factory -> factory.addConnectorCustomizers(connector -> connector.setProperty("socket.txBufSize", "4096"));
+        }
+    }
+
+    @Test
+    void oneWriteReachesEveryIdleSubscriberWhileAnotherReaderIsStalled() throws Exception {
+        String bearer = registerAndLogin();
+        long stalledListId = createList(bearer, "Yavaş");
+        long listId = createList(bearer, "Kalabalık");
+
+        CountDownLatch subscribed = new CountDownLatch(SUBSCRIBERS);
+        CountDownLatch changed = new CountDownLatch(SUBSCRIBERS);
+        List<EventCounter> streams = new ArrayList<>(SUBSCRIBERS);
+        try (Socket stalled = openStalledSubscription(stalledListId, bearer)) {
+            for (int opened = 0; opened < SUBSCRIBERS; opened++) {
+                EventCounter stream = new EventCounter(subscribed, changed);
+                streams.add(stream);
+                streamClient.sendAsync(get("/api/shoppinglists/" + listId + "/events", bearer)
+                        .header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.fromLineSubscriber(stream));
+                // Bağlantılar parça parça açılır; aynı anda binlerce SYN kabul kuyruğunu taşırmaz
+                if ((opened + 1) % CONNECT_CHUNK == 0) {
+                    long expectedRemaining = SUBSCRIBERS - (opened + 1);
+                    assertThat(awaitCondition(() -> subscribed.getCount() <= expectedRemaining, Duration.ofSeconds(60))).isTrue();
+                }
+            }
+            assertThat(subscribed.await(60, TimeUnit.SECONDS)).isTrue();
+            assertThat(awaitCondition(() -> listChangeBroadcaster.getSubscriberCount() == SUBSCRIBERS + 1,
+                    Duration.ofSeconds(10))).isTrue();
+
+            // Yavaş okuyucunun yazıcısını takılı bırakacak büyüklükte bir olay (500 ürünlük değişiklik listesi)
+            long droppedBefore = listChangeBroadcaster.getDroppedCount();
+            batchAdd(bearer, stalledListId, 500);
+            Thread.sleep(1000);
+
+            long start = System.nanoTime();
+            send(post("/api/shoppinglists/" + listId + "/items", bearer, Map.of("productName", "Süt", "quantity", 1)), 201);
+            assertThat(changed.await(15, TimeUnit.SECONDS)).isTrue();
+            long deliveredMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("One write reached {} idle subscribers in {} ms while a reader was stalled", SUBSCRIBERS, deliveredMs);
+
+            // Takılı gönderim süre sınırını (2 sn) aşınca yavaş okuyucu düşürülür, diğer abonelikler açık kalır
+            assertThat(awaitCondition(() -> listChangeBroadcaster.getDroppedCount() > droppedBefore, Duration.ofSeconds(10))).isTrue();
+            assertThat(listChangeBroadcaster.getSubscriberCount()).isEqualTo(SUBSCRIBERS);
+        } finally {
+            streams.forEach(EventCounter::cancel);
+        }
+    }
+
+    // İsteği gönderir ama yanıtı hiç okumaz; alma tamponu bağlantıdan önce küçültülür
+    private Socket openStalledSubscription(long shoppingListId, String bearer) throws Exception {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(1024);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /api/shoppinglists/" + shoppingListId + "/events HTTP/1.1\r\n" +
+                "Host: localhost:" + port + "\r\n" +
+                "Authorization: " + bearer + "\r\n" +
+                "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private void batchAdd(String bearer, long shoppingListId, int rows) throws Exception {
+        List<Map<String, Object>> operations = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            operations.add(Map.of("op", "ADD", "item", Map.of("productName", "Ürün " + i, "quantity", 1)));
+        }
+        send(post("/api/shoppinglists/" + shoppingListId + "/items/batch", bearer, operations), 200);
+    }
+
+    private String registerAndLogin() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        send(post("/api/auth/register", null, Map.of("username", "user", "email", email, "password", "secret123")), 201);
+        return "Bearer " + send(post("/api/auth/login", null, Map.of("email", email, "password", "secret123")), 200)
+                .get("accessToken").asText();
+    }
+
+    private long createList(String bearer, String name) throws Exception {
+        return send(post("/api/shoppinglists", bearer, Map.of("name", name)), 201).get("id").asLong();
+    }
+
+    private HttpRequest.Builder get(String path, String bearer) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Authorization", bearer);
+    }
+
+    private HttpRequest post(String path, String bearer, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (bearer != null) {
+            request.header("Authorization", bearer);
+        }
+        return request.build();
+    }
+
+    private JsonNode send(HttpRequest request, int expectedStatus) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(expectedStatus);
+        return objectMapper.readTree(response.body());
+    }
+
+    private static boolean awaitCondition(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+
+    // Akıştaki olay satırlarını sayar; her abonelik her olay türü için sayaçları yalnızca bir kez düşürür
+    private static final class EventCounter implements Flow.Subscriber<String> {
+
+        private final CountDownLatch subscribed;
+        private final CountDownLatch changed;
+        private final AtomicBoolean seenSubscribed = new AtomicBoolean();
+        private final AtomicBoolean seenChanges = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+
+        private EventCounter(CountDownLatch subscribed, CountDownLatch changed) {
+            this.subscribed = subscribed;
+            this.changed = changed;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:subscribed") && seenSubscribed.compareAndSet(false, true)) {
+                subscribed.countDown();
+            } else if (line.equals("event:changes") && seenChanges.compareAndSet(false, true)) {
+                changed.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
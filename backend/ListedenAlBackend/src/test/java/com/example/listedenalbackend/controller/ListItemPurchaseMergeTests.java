@@ -0,0 +1,94 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH .../purchase ve .../unpurchase sonrasında birleştirerek eklemenin (POST ?merge=true) davranışı.
+ * Satın alınmadığa dönen ürün birleştirme anahtarını geri almalı; anahtar başka bir üründeyse o ürün birleştirilmeye devam etmelidir.
+ */
+@AutoConfigureMockMvc
+class ListItemPurchaseMergeTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+    private long listId;
+
+    @BeforeEach
+    void registerUserWithList() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"user\",\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isCreated());
+        JsonNode login = perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"secret123\"}"), status().isOk());
+        bearer = "Bearer " + login.get("accessToken").asText();
+
+        listId = perform(authorized(post("/api/shoppinglists")).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Market\"}"), status().isCreated()).get("id").asLong();
+    }
+
+    @Test
+    void unpurchasedItemIsMergedIntoAgain() throws Exception {
+        long itemId = add("Süt", 1, status().isCreated()).get("id").asLong();
+        perform(authorized(patch("/api/shoppinglists/{id}/items/{itemId}/purchase", listId, itemId)), status().isOk());
+        perform(authorized(patch("/api/shoppinglists/{id}/items/{itemId}/unpurchase", listId, itemId)), status().isOk());
+
+        JsonNode merged = add(" SÜT ", 2, status().isOk());
+
+        assertThat(merged.get("id").asLong()).isEqualTo(itemId);
+        assertThat(merged.get("quantity").asDouble()).isEqualTo(3.0);
+    }
+
+    @Test
+    void unpurchasedItemLeavesKeyToItemAddedMeanwhile() throws Exception {
+        long purchasedId = add("Ekmek", 1, status().isCreated()).get("id").asLong();
+        perform(authorized(patch("/api/shoppinglists/{id}/items/{itemId}/purchase", listId, purchasedId)), status().isOk());
+        long addedId = add("ekmek", 1, status().isCreated()).get("id").asLong();
+
+        // Anahtar artık yeni üründe; geri alınan ürün anahtarsız kalır, benzersiz indeks ihlal edilmez
+        perform(authorized(patch("/api/shoppinglists/{id}/items/{itemId}/unpurchase", listId, purchasedId)), status().isOk());
+        JsonNode merged = add("Ekmek", 2, status().isOk());
+
+        assertThat(merged.get("id").asLong()).isEqualTo(addedId);
+        assertThat(merged.get("quantity").asDouble()).isEqualTo(3.0);
+    }
+
+    private JsonNode add(String productName, double quantity, ResultMatcher expectedStatus) throws Exception {
+        return perform(authorized(post("/api/shoppinglists/{id}/items", listId).param("merge", "true"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("productName", productName, "quantity", quantity))), expectedStatus);
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, bearer);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.listedenalbackend.controller;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Uç nokta başına çalışan SQL ifadesi sayısını ("hibernate.queries.per.request" ölçüsü) sınırlar.
+ * Kimlik doğrulama dahil sayılır; kullanıcı ID'si principal'dan geldiği için istek başına kullanıcı sorgusu yapılmamalıdır.
+ * Önbellekler ilk istekte dolar, bu yüzden her uç nokta bir kez ısıtıldıktan sonra ölçülür.
+ */
+@AutoConfigureMockMvc
+class RequestQueryCountTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+    private long listId;
+    private long itemId;
+
+    @BeforeEach
+    void registerUserWithList() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"user\",\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isCreated());
+        JsonNode login = json(mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        bearer = "Bearer " + login.get("accessToken").asText();
+
+        listId = json(mockMvc.perform(authorized(post("/api/shoppinglists")).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Market\"}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("id").asLong();
+        itemId = json(mockMvc.perform(authorized(post("/api/shoppinglists/{id}/items", listId)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Süt\",\"quantity\":1,\"unit\":\"lt\"}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    @Test
+    void listReadsRunBoundedStatementCounts() throws Exception {
+        assertThat(statements("GET", "/api/shoppinglists", get("/api/shoppinglists"))).isBetween(1L, 2L);
+        assertThat(statements("GET", "/api/shoppinglists/{id}", get("/api/shoppinglists/{id}", listId))).isBetween(1L, 2L);
+        assertThat(statements("GET", "/api/shoppinglists/{shoppingListId}/items",
+                get("/api/shoppinglists/{id}/items", listId))).isBetween(1L, 2L);
+    }
+
+    @Test
+    void itemWritesRunBoundedStatementCounts() throws Exception {
+        assertThat(statements("POST", "/api/shoppinglists/{shoppingListId}/items",
+                post("/api/shoppinglists/{id}/items", listId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Ekmek\",\"quantity\":1}"))).isBetween(1L, 3L);
+        assertThat(statements("PUT", "/api/shoppinglists/{shoppingListId}/items/{itemId}",
+                put("/api/shoppinglists/{id}/items/{itemId}", listId, itemId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":2}"))).isBetween(1L, 3L);
+    }
+
+    // İsteği bir kez ısıtma için, bir kez ölçmek için çalıştırır ve ikinci istekteki ifade sayısını döndürür
+    private long statements(String method, String uri, MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(authorized(request)).andExpect(status().is2xxSuccessful());
+        double before = recorded(method, uri);
+        mockMvc.perform(authorized(request)).andExpect(status().is2xxSuccessful());
+        return Math.round(recorded(method, uri) - before);
+    }
+
+    private double recorded(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find("hibernate.queries.per.request")
+                .tag("method", method).tag("uri", uri).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, bearer);
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.listedenalbackend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTokenBucketBackendTests {
+
+    // 5 token, her 10 saniyede 5 token => token başına 2 saniye
+    private static final Bandwidth BANDWIDTH = new Bandwidth(5, 5, Duration.ofSeconds(10));
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(2);
+
+    // Sıfırdan başlamayan bir saat; System.nanoTime da keyfi bir başlangıç değerine sahiptir
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final InMemoryTokenBucketBackend backend = new InMemoryTokenBucketBackend(100, Duration.ofMinutes(10), clock::get);
+
+    @Test
+    void newBucketAllowsFullBurstThenReportsWaitForNextToken() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(backend.tryConsume("k", BANDWIDTH)).isZero();
+        }
+
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectedAttemptDoesNotConsumeToken() {
+        drain("k");
+
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isEqualTo(INTERVAL);
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isEqualTo(INTERVAL);
+        clock.addAndGet(INTERVAL);
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isZero();
+    }
+
+    @Test
+    void tokensRefillOnePerIntervalAndWaitShrinksWithElapsedTime() {
+        drain("k");
+
+        clock.addAndGet(INTERVAL / 2);
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isEqualTo(INTERVAL / 2);
+
+        clock.addAndGet(INTERVAL / 2);
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isZero();
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToCapacity() {
+        drain("k");
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 5; i++) {
+            assertThat(backend.tryConsume("k", BANDWIDTH)).isZero();
+        }
+        assertThat(backend.tryConsume("k", BANDWIDTH)).isPositive();
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        drain("a");
+
+        assertThat(backend.tryConsume("a", BANDWIDTH)).isPositive();
+        assertThat(backend.tryConsume("b", BANDWIDTH)).isZero();
+        assertThat(backend.size()).isEqualTo(2);
+    }
+
+    private void drain(String key) {
+        while (backend.tryConsume(key, BANDWIDTH) == 0) {
+            // Kova boşalana kadar token alınır
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.listedenalbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldMergeTests {
+
+    @Test
+    void currentRequestAppliesEverySentField() {
+        FieldMerge merge = new FieldMerge(false);
+
+        assertThat(merge.resolve("name", "Yeni", "Eski", "Başka")).isEqualTo("Yeni");
+        assertThat(merge.resolve("notes", null, "Not", "Not")).isNull();
+        assertThat(merge.getConflicts()).isEmpty();
+    }
+
+    @Test
+    void staleRequestKeepsServerValueForFieldsTheClientDidNotChange() {
+        FieldMerge merge = new FieldMerge(true);
+
+        assertThat(merge.resolve("name", "Süt", "Süt", "Ayran")).isNull();
+        assertThat(merge.getConflicts()).isEmpty();
+    }
+
+    @Test
+    void staleRequestAppliesFieldsOnlyTheClientChanged() {
+        FieldMerge merge = new FieldMerge(true);
+
+        assertThat(merge.resolve("quantity", 3.0, 1.0, 1.0)).isEqualTo(3.0);
+        assertThat(merge.getConflicts()).isEmpty();
+    }
+
+    @Test
+    void bothSidesChangingToSameValueIsNotAConflict() {
+        FieldMerge merge = new FieldMerge(true);
+
+        assertThat(merge.resolve("unit", "kg", "adet", "kg")).isEqualTo("kg");
+        assertThat(merge.getConflicts()).isEmpty();
+    }
+
+    @Test
+    void bothSidesChangingToDifferentValuesIsAConflict() {
+        FieldMerge merge = new FieldMerge(true);
+
+        merge.resolve("name", "Tam yağlı süt", "Süt", "Yarım yağlı süt");
+        merge.resolve("priority", 1, 3, 3);
+        merge.resolve("archived", true, false, true);
+
+        assertThat(merge.getConflicts()).containsExactly("name");
+    }
+
+    @Test
+    void fillingAnEmptyFieldConflictsWithAConcurrentValue() {
+        FieldMerge merge = new FieldMerge(true);
+
+        // İstemci okuduğunda not yoktu, şimdi not ekliyor; sunucu da aynı anda başka bir not yazmış
+        assertThat(merge.resolve("notes", "Laktozsuz", null, "Marketten")).isEqualTo("Laktozsuz");
+        assertThat(merge.getConflicts()).containsExactly("notes");
+    }
+}
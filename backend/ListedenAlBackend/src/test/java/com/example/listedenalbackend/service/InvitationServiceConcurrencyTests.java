@@ -0,0 +1,101 @@
+package com.example.listedenalbackend.service;
+
+import com.example.listedenalbackend.PostgresIntegrationTest;
+import com.example.listedenalbackend.dto.ShoppingListView;
+import com.example.listedenalbackend.model.ListShare;
+import com.example.listedenalbackend.model.ShoppingList;
+import com.example.listedenalbackend.model.User;
+import com.example.listedenalbackend.repository.ShoppingListRepository;
+import com.example.listedenalbackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvitationServiceConcurrencyTests extends PostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private InvitationService invitationService;
+
+    @Autowired
+    private ShoppingListService shoppingListService;
+
+    @Autowired
+    private ShoppingListRepository shoppingListRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentAcceptsOfSameCodeSucceedExactlyOnce() throws Exception {
+        User owner = createUser();
+        User recipient = createUser();
+        ShoppingList list = new ShoppingList();
+        list.setName("Market");
+        ShoppingListView listView = shoppingListService.createShoppingList(list, owner.getId());
+        Long listId = listView.getId();
+        String code = invitationService.createInvitation(listId, recipient.getEmail(), owner.getId(),
+                ListShare.PermissionLevel.EDITOR).getInvitationCode();
+        long versionBefore = shoppingListRepository.findChangeVersionById(listId).orElseThrow();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        invitationService.acceptInvitation(code, recipient.getId());
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false; // Davetiye başka bir thread tarafından kabul edildi
+                    }
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(30, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            assertThat(accepted).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from invitations where invitationcode = ? and status = 'ACCEPTED'", Integer.class, code))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from list_shares where shopping_list_id = ? and shared_user_id = ?", Integer.class,
+                listId, recipient.getId()))
+                .isEqualTo(1);
+        assertThat(shoppingListRepository.findChangeVersionById(listId)).contains(versionBefore + 1);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("user");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("{noop}unused");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.listedenalbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTests {
+
+    @Test
+    void roundTripsSortKeyAndId() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123456000);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(updatedAt, 1234L));
+
+        assertThat(cursor.sortKey()).isEqualTo(updatedAt.toString());
+        assertThat(LocalDateTime.parse(cursor.sortKey())).isEqualTo(updatedAt);
+        assertThat(cursor.id()).isEqualTo(1234L);
+    }
+
+    @Test
+    void nullSortKeyRoundTripsAsNull() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(null, 5L));
+
+        assertThat(cursor.sortKey()).isNull();
+        assertThat(cursor.id()).isEqualTo(5L);
+    }
+
+    @Test
+    void sortKeyMayContainSeparator() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode("a|b", 9L));
+
+        assertThat(cursor.sortKey()).isEqualTo("a|b");
+        assertThat(cursor.id()).isEqualTo(9L);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        assertThat(KeysetCursor.encode("??>>??", Long.MAX_VALUE)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decodeRejectsMalformedCursors() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode("x", null))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("bm8tc2VwYXJhdG9y")) // "no-separator"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
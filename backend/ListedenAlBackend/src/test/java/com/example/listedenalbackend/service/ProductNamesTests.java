@@ -0,0 +1,44 @@
+package com.example.listedenalbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductNamesTests {
+
+    @Test
+    void normalizeTrimsAndCollapsesWhitespace() {
+        assertThat(ProductNames.normalize("  Tam   yağlı\tsüt \n")).isEqualTo("tam yağlı süt");
+    }
+
+    @Test
+    void normalizeUsesTurkishCaseRules() {
+        assertThat(ProductNames.normalize("IRMIK")).isEqualTo("ırmık");
+        assertThat(ProductNames.normalize("İNCİR")).isEqualTo("incir");
+        assertThat(ProductNames.normalize("ŞEKER ÇÖREK ÜZÜM")).isEqualTo("şeker çörek üzüm");
+    }
+
+    @Test
+    void normalizeComposesDecomposedCharacters() {
+        // "u" + birleşen iki nokta (U+0308) ile tek karakterlik "ü" aynı ürünü göstermelidir
+        assertThat(ProductNames.normalize("su\u0308t")).isEqualTo(ProductNames.normalize("s\u00fct"));
+    }
+
+    @Test
+    void normalizeTreatsNullAsEmpty() {
+        assertThat(ProductNames.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void mergeKeyMatchesDifferentSpellingsOfSameProductAndUnit() {
+        assertThat(ProductNames.mergeKey(" SÜT ", "LT")).isEqualTo(ProductNames.mergeKey("süt", "lt"));
+        assertThat(ProductNames.mergeKey("Ekmek", null)).isEqualTo(ProductNames.mergeKey("ekmek", ""));
+    }
+
+    @Test
+    void mergeKeyDistinguishesUnitsAndNameUnitBoundary() {
+        assertThat(ProductNames.mergeKey("Süt", "lt")).isNotEqualTo(ProductNames.mergeKey("Süt", "ml"));
+        // Ayırıcı sayesinde ad ve birim sınırı kaydırılarak aynı anahtar üretilemez
+        assertThat(ProductNames.mergeKey("süt l", "t")).isNotEqualTo(ProductNames.mergeKey("süt", "l t"));
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.listedenalapp.data.api
 
 import com.example.listedenalapp.data.model.AuthResponse
+import com.example.listedenalapp.data.model.RefreshTokenRequest
 import com.example.listedenalapp.data.model.UserLoginRequest
 import com.example.listedenalapp.data.model.UserRegisterRequest
+import retrofit2.Call
 import retrofit2.Response
 import retrofit2.http.Body
 import retrofit2.http.POST
@@ -15,4 +17,8 @@ interface ApiService {
     @POST("api/auth/login") // Giriş işlemi için POST isteği
     suspend fun loginUser(@Body request: UserLoginRequest): Response<AuthResponse>
 
+    // Erişim tokenı süresi dolduğunda şifre göndermeden yeni token almak için (OkHttp Authenticator'dan senkron çağrılır)
+    @POST("api/auth/refresh")
+    fun refreshToken(@Body request: RefreshTokenRequest): Call<AuthResponse>
+
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.example.listedenalapp.data.api
 
+import com.example.listedenalapp.data.model.RefreshTokenRequest
 import com.example.listedenalapp.utils.AuthTokenManager
+import okhttp3.Authenticator
 import okhttp3.Interceptor
 import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.Route
 import okhttp3.logging.HttpLoggingInterceptor
 import retrofit2.Retrofit
 import retrofit2.converter.gson.GsonConverterFactory
@@ -46,9 +51,59 @@ object RetrofitClient {
             chain.proceed(requestBuilder.build())
         }
 
+        // Yenileme isteği için ayrı istemci: Authorization eklemez ve 401'de tekrar yenilemeye çalışmaz
+        val refreshApi = Retrofit.Builder()
+            .baseUrl(BASE_URL)
+            .client(OkHttpClient.Builder().addInterceptor(loggingInterceptor).build())
+            .addConverterFactory(GsonConverterFactory.create())
+            .build()
+            .create(ApiService::class.java)
+
+        // 401 alındığında şifre yerine yenileme tokenı ile yeni token alınır ve istek bir kez tekrarlanır
+        val tokenAuthenticator = object : Authenticator {
+            override fun authenticate(route: Route?, response: Response): Request? {
+                if (response.priorResponse != null) {
+                    return null
+                }
+                return synchronized(this@RetrofitClient) { refreshAndRetry(response) }
+            }
+
+            private fun refreshAndRetry(response: Response): Request? =
+                kotlinx.coroutines.runBlocking<Request?> {
+                    val currentToken = authTokenManager.getAuthToken()
+                    val failedToken = response.request.header("Authorization")?.removePrefix("Bearer ")
+                    // Başka bir istek token'ı bu arada yenilediyse yeni token ile tekrar dene
+                    if (currentToken != null && currentToken != failedToken) {
+                        return@runBlocking response.request.newBuilder()
+                            .header("Authorization", "Bearer $currentToken")
+                            .build()
+                    }
+
+                    val refreshToken = authTokenManager.getRefreshToken() ?: return@runBlocking null
+                    val refreshed = runCatching {
+                        refreshApi.refreshToken(RefreshTokenRequest(refreshToken)).execute()
+                    }.getOrNull()
+
+                    val body = refreshed?.body()
+                    if (refreshed == null || !refreshed.isSuccessful || body == null) {
+                        // Yenileme tokenı geçersiz veya iptal edilmiş; kullanıcı tekrar giriş yapmalı
+                        if (refreshed != null && refreshed.code() == 401) {
+                            authTokenManager.clearAuthToken()
+                        }
+                        return@runBlocking null
+                    }
+
+                    authTokenManager.saveAuthToken(body.accessToken, body.refreshToken)
+                    response.request.newBuilder()
+                        .header("Authorization", "Bearer ${body.accessToken}")
+                        .build()
+                }
+        }
+
         val okHttpClient = OkHttpClient.Builder()
             .addInterceptor(authInterceptor)
             .addInterceptor(loggingInterceptor)
+            .authenticator(tokenAuthenticator)
             .build()
 
         return Retrofit.Builder()
@@ -2,5 +2,6 @@ package com.example.listedenalapp.data.model
 
 data class AuthResponse(
     val accessToken: String,
-    val email: String? = null
+    val email: String? = null,
+    val refreshToken: String? = null
 )
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.listedenalapp.data.model
+
+data class RefreshTokenRequest(
+    val refreshToken: String
+)
\ No newline at end of file
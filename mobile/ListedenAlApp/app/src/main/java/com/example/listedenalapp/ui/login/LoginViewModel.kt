@@ -29,7 +29,7 @@ class LoginViewModel(
             _loginResult.value = result
 
             if (result is NetworkResult.Success) {
-                authTokenManager.saveAuthToken(result.data.accessToken)
+                authTokenManager.saveAuthToken(result.data.accessToken, result.data.refreshToken)
             }
         }
     }
@@ -15,13 +15,18 @@ class AuthTokenManager(private val context: Context) {
 
     // Token için DataStore anahtarı
     private val AUTH_TOKEN_KEY = stringPreferencesKey("auth_token")
+    // Yenileme tokenı için DataStore anahtarı
+    private val REFRESH_TOKEN_KEY = stringPreferencesKey("refresh_token")
 
     /**
-     * Kimlik doğrulama tokenını DataStore'a kaydeder.
+     * Kimlik doğrulama tokenını ve (varsa) yenileme tokenını DataStore'a kaydeder.
      */
-    suspend fun saveAuthToken(token: String) {
+    suspend fun saveAuthToken(token: String, refreshToken: String? = null) {
         context.dataStore.edit { preferences ->
             preferences[AUTH_TOKEN_KEY] = token
+            if (refreshToken != null) {
+                preferences[REFRESH_TOKEN_KEY] = refreshToken
+            }
         }
     }
 
@@ -37,11 +42,23 @@ class AuthTokenManager(private val context: Context) {
     }
 
     /**
-     * DataStore'dan kimlik doğrulama tokenını siler (çıkış yaparken kullanılır).
+     * DataStore'dan yenileme tokenını okur.
+     * Token yoksa null döner.
+     */
+    suspend fun getRefreshToken(): String? {
+        return context.dataStore.data
+            .map { preferences ->
+                preferences[REFRESH_TOKEN_KEY]
+            }.first()
+    }
+
+    /**
+     * DataStore'dan kimlik doğrulama ve yenileme tokenlarını siler (çıkış yaparken kullanılır).
      */
     suspend fun clearAuthToken() {
         context.dataStore.edit { preferences ->
             preferences.remove(AUTH_TOKEN_KEY)
+            preferences.remove(REFRESH_TOKEN_KEY)
         }
     }
 }
\ No newline at end of file